@@ -0,0 +1,116 @@
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Training input for the class-data-sharing archive of the compiler (see the
+ * {@code cds} profile): compiling it loads the classes used by most compilations.
+ */
+public class Training {
+    enum Kind { A, B, C }
+
+    record Point(int x, int y) implements Comparable<Point> {
+        Point {
+            if (x < 0) throw new IllegalArgumentException();
+        }
+
+        public int compareTo(Point o) {
+            return Integer.compare(x * x + y * y, o.x * o.x + o.y * o.y);
+        }
+    }
+
+    interface Shape {}
+    record Circle(double r) implements Shape {}
+    record Square(double side) implements Shape {}
+
+    @FunctionalInterface
+    interface Op<T extends Number> {
+        T apply(T a, T b);
+    }
+
+    private final Map<String, List<Point>> points = new HashMap<>();
+    private static final String TEXT = """
+            text block
+            """;
+
+    static double area(Shape s) {
+        if (s instanceof Circle c) {
+            return Math.PI * c.r() * c.r();
+        } else if (s instanceof Square q) {
+            return q.side() * q.side();
+        }
+        throw new AssertionError();
+    }
+
+    static int describe(Kind k) {
+        return switch (k) {
+            case A -> 1;
+            case B -> 2;
+            default -> {
+                int n = k.ordinal();
+                yield n * 2;
+            }
+        };
+    }
+
+    <T extends Comparable<? super T>> T max(Collection<? extends T> items) {
+        T best = null;
+        for (T t : items) {
+            if (best == null || t.compareTo(best) > 0) best = t;
+        }
+        return best;
+    }
+
+    String summary(String key) throws IOException {
+        try (StringWriter w = new StringWriter(); PrintWriter out = new PrintWriter(w)) {
+            List<Point> list = points.computeIfAbsent(key, k -> new ArrayList<>());
+            Op<Integer> add = Integer::sum;
+            Supplier<Point> origin = () -> new Point(0, 0);
+            int total = list.stream().mapToInt(Point::x).reduce(0, add::apply);
+            String joined = list.stream()
+                    .filter(p -> p.y() > 0)
+                    .sorted(Comparator.reverseOrder())
+                    .map(p -> p.x() + ":" + p.y())
+                    .collect(Collectors.joining(","));
+            out.printf("%s %d %s %s%n", key, total, joined, origin.get());
+            var local = new Object() {
+                int count = list.size();
+            };
+            label:
+            for (int i = 0; i < local.count; i++) {
+                switch (i % 3) {
+                    case 0: continue label;
+                    case 1: break;
+                    default: out.print(i);
+                }
+            }
+            out.flush();
+            return w + TEXT + max(list) + (long) total + 'c' + 1.5f;
+        } catch (UncheckedIOException | IllegalStateException e) {
+            throw new IOException(e);
+        } finally {
+            assert points != null : "points";
+        }
+    }
+
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    static <T> T[] array(T... items) {
+        synchronized (Training.class) {
+            int[][] grid = new int[2][3];
+            grid[1][2] += items.length << 2 | 1;
+            return items.length > grid[1][2] ? items : (T[]) new Object[0];
+        }
+    }
+
+    class Inner {
+        int value = points.size();
+    }
+
+    static class Nested<K, V> extends AbstractMap<K, V> {
+        public Set<Entry<K, V>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package javi.compiler;
+
+import java.io.PrintWriter;
+
+import javi.compiler.internal.com.sun.tools.javac.api.JavacTaskPool;
+
+/**
+ * Programmatic interface to the compiler for tools running it many times in
+ * the same JVM, such as build tools compiling one module after another.
+ * Each invocation takes its arguments as {@link Main#compile(String[], PrintWriter)}
+ * does, but runs in a compiler context kept in a pool: the context is cleaned
+ * after the compilation and reused by the next invocation with compatible
+ * options, keeping the symbols of the platform classes. Invocations whose options
+ * only differ in their class path, source path and output directories are
+ * compatible.
+ *
+ * <p>A context is not reused if the compilation left it in a state that cannot
+ * be cleaned, such as when it redefines core classes; it is then said to be
+ * polluted. The counts of created, reused and polluted contexts show how well
+ * the pool works for a given workload.
+ *
+ * <p>A pool may be used by several threads at once; each invocation gets a
+ * context of its own.
+ */
+public class CompilerPool {
+    private final JavacTaskPool pool;
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxPoolSize maximum number of contexts kept between invocations
+     */
+    public CompilerPool(int maxPoolSize) {
+        this.pool = new JavacTaskPool(maxPoolSize);
+    }
+
+    /**
+     * Compiles with a context from the pool, writing diagnostics to {@code System.err}.
+     *
+     * @param args The command line arguments that would normally be
+     *             passed to the javac program as described in the man page.
+     * @return an integer equivalent to the exit value from invoking
+     * javac, see the man page for details.
+     */
+    public int compile(String[] args) {
+        return compile(args, new PrintWriter(System.err, true));
+    }
+
+    /**
+     * Compiles with a context from the pool.
+     *
+     * @param args The command line arguments that would normally be
+     *             passed to the javac program as described in the man page.
+     * @param out  PrintWriter to which the compiler's diagnostic
+     *             output is directed.
+     * @return an integer equivalent to the exit value from invoking
+     * javac, see the man page for details.
+     */
+    public int compile(String[] args, PrintWriter out) {
+        return pool.compile(args, out);
+    }
+
+    /**
+     * @return the number of invocations which reused a context from the pool
+     */
+    public int getReusedCount() {
+        return pool.getReusedCount();
+    }
+
+    /**
+     * @return the number of contexts created, because none in the pool could be reused
+     */
+    public int getCreatedCount() {
+        return pool.getCreatedCount();
+    }
+
+    /**
+     * @return the number of contexts not returned to the pool, because they were polluted
+     */
+    public int getPollutedCount() {
+        return pool.getPollutedCount();
+    }
+
+    /**
+     * @return the number of contexts removed from the pool to keep it within its maximum size
+     */
+    public int getRemovedCount() {
+        return pool.getRemovedCount();
+    }
+
+    /**
+     * @return the number of contexts currently in the pool
+     */
+    public int getPooledCount() {
+        return pool.getPooledCount();
+    }
+
+    @Override
+    public String toString() {
+        return "CompilerPool[reused=" + getReusedCount() + ", created=" + getCreatedCount()
+                + ", polluted=" + getPollutedCount() + ", removed=" + getRemovedCount()
+                + ", pooled=" + getPooledCount() + "]";
+    }
+}
@@ -196,7 +196,7 @@ public class ClientCodeWrapper {
         Class<?> c = o.getClass();
         Boolean trusted = trustedClasses.get(c);
         if (trusted == null) {
-            trusted = c.getName().startsWith("com.sun.tools.javac.")
+            trusted = c.getName().startsWith("javi.compiler.internal.com.sun.tools.javac.")
                     || c.isAnnotationPresent(Trusted.class);
             trustedClasses.put(c, trusted);
         }
@@ -79,6 +79,7 @@ public class JavacTaskImpl extends BasicJavacTask {
     private final AtomicBoolean used = new AtomicBoolean();
     private Iterable<? extends Processor> processors;
     private ListBuffer<String> addModules = new ListBuffer<>();
+    private boolean reportProcessorErrors;
 
     protected JavacTaskImpl(Context context) {
         super(context, true);
@@ -95,6 +96,14 @@ public class JavacTaskImpl extends BasicJavacTask {
 
     /* Internal version of call exposing Main.Result. */
     public Main.Result doCall() {
+        return doCall(false);
+    }
+
+    /* Internal version of call exposing Main.Result; if reportProcessorErrors is set, an error
+     * thrown by an annotation processor is reported as by the command line compiler, and results
+     * in Result.SYSERR, rather than being thrown. */
+    public Main.Result doCall(boolean reportProcessorErrors) {
+        this.reportProcessorErrors = reportProcessorErrors;
         try {
             Pair<Main.Result, Throwable> result = invocationHelper(() -> {
                 prepareCompiler(false);
@@ -106,7 +115,8 @@ public class JavacTaskImpl extends BasicJavacTask {
             if (result.snd == null) {
                 return result.fst;
             } else {
-                return (result.snd instanceof FatalError) ? Main.Result.SYSERR : Main.Result.ABNORMAL;
+                return (result.snd instanceof FatalError || result.snd instanceof AnnotationProcessingError)
+                        ? Main.Result.SYSERR : Main.Result.ABNORMAL;
             }
         } finally {
             try {
@@ -164,6 +174,12 @@ public class JavacTaskImpl extends BasicJavacTask {
             // to forward errors thrown from user-supplied code for Compiler API
             // as specified by javax.tools.JavaCompiler#getTask
             // and javax.tools.JavaCompiler.CompilationTask#call
+            if (reportProcessorErrors && e instanceof AnnotationProcessingError) {
+                Log log = Log.instance(context);
+                log.printLines(PrefixKind.JAVAC, "msg.proc.annotation.uncaught.exception");
+                e.getCause().printStackTrace(log.getWriter(WriterKind.NOTICE));
+                return new Pair<>(null, e);
+            }
             throw new RuntimeException(e.getCause());
         } catch (PropagatedException e) {
             throw e.getCause();
@@ -476,6 +492,7 @@ public class JavacTaskImpl extends BasicJavacTask {
                     };
                 f.run(genList, classes);
             }
+            compiler.flushOutput();
             if (genList.isEmpty()) {
                 compiler.reportDeferredDiagnostics();
                 cleanup();
@@ -27,17 +27,26 @@ package javi.compiler.internal.com.sun.tools.javac.api;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.io.IOException;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javi.api.tools.Diagnostic;
@@ -56,6 +65,7 @@ import javi.compiler.internal.com.sun.source.util.TaskListener;
 import javi.compiler.internal.com.sun.source.util.TreeScanner;
 import javi.compiler.internal.com.sun.tools.javac.code.Kinds;
 import javi.compiler.internal.com.sun.tools.javac.code.Preview;
+import javi.compiler.internal.com.sun.tools.javac.code.Source.Feature;
 import javi.compiler.internal.com.sun.tools.javac.code.Symbol;
 import javi.compiler.internal.com.sun.tools.javac.code.Symtab;
 import javi.compiler.internal.com.sun.tools.javac.code.Type;
@@ -67,15 +77,22 @@ import javi.compiler.internal.com.sun.tools.javac.comp.Check;
 import javi.compiler.internal.com.sun.tools.javac.comp.CompileStates;
 import javi.compiler.internal.com.sun.tools.javac.comp.Enter;
 import javi.compiler.internal.com.sun.tools.javac.comp.Modules;
+import javi.compiler.internal.com.sun.tools.javac.file.JavacFileManager;
 import javi.compiler.internal.com.sun.tools.javac.main.Arguments;
+import javi.compiler.internal.com.sun.tools.javac.main.CommandLine;
 import javi.compiler.internal.com.sun.tools.javac.main.JavaCompiler;
+import javi.compiler.internal.com.sun.tools.javac.main.Main;
+import javi.compiler.internal.com.sun.tools.javac.main.Option;
 import javi.compiler.internal.com.sun.tools.javac.model.JavacElements;
 import javi.compiler.internal.com.sun.tools.javac.platform.PlatformDescription;
+import javi.compiler.internal.com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import javi.compiler.internal.com.sun.tools.javac.processing.ProcessorClassLoaderCache;
 import javi.compiler.internal.com.sun.tools.javac.tree.JCTree.JCClassDecl;
 import javi.compiler.internal.com.sun.tools.javac.tree.JCTree.LetExpr;
 import javi.compiler.internal.com.sun.tools.javac.util.Context;
 import javi.compiler.internal.com.sun.tools.javac.util.DefinedBy;
 import javi.compiler.internal.com.sun.tools.javac.util.DefinedBy.Api;
+import javi.compiler.internal.com.sun.tools.javac.util.JCDiagnostic;
 import javi.compiler.internal.com.sun.tools.javac.util.Log;
 import javi.compiler.internal.com.sun.tools.javac.util.Options;
 
@@ -91,6 +108,12 @@ import javi.compiler.internal.com.sun.tools.javac.util.Options;
  * When the compilation redefines sensitive classes (e.g. classes in the the java.* packages), the
  * task/context is not reused.
  * <p>
+ * Tasks created for source files, rather than for file objects of a file manager given by the
+ * caller, use a file manager kept with the context. Such contexts only keep the symbols of the
+ * system modules between tasks, and are shared by compilations whose options only differ in
+ * their class path, source path and output directories; this is how build tools compiling many
+ * projects in one VM avoid reading the platform classes again for each of them.
+ * <p>
  * When the task is reused, then packages that were already listed won't be listed again.
  * <p>
  * Care must be taken to only return tasks that won't be used by the original caller.
@@ -111,6 +134,7 @@ public class JavacTaskPool {
 
     private final int maxPoolSize;
     private final Map<List<String>, Queue<ReusableContext>> options2Contexts = new HashMap<>();
+    private final Map<List<String>, Queue<ReusableContext>> platformOptions2Contexts = new HashMap<>();
     private int id;
 
     private int statReused = 0;
@@ -163,29 +187,203 @@ public class JavacTaskPool {
                 StreamSupport.stream(options.spliterator(), false)
                              .collect(Collectors.toCollection(ArrayList::new));
 
-        ReusableContext ctx;
+        ReusableContext ctx = acquire(options2Contexts, opts, false);
+
+        return runTask(ctx, out, fileManager, diagnosticListener, opts, classes, compilationUnits, worker);
+    }
+
+    /**Creates a new task for the given source files and runs the provided worker with it, as by
+     * {@link #getTask(Writer, JavaFileManager, DiagnosticListener, Iterable, Iterable, Iterable, Worker)
+     * getTask} with the compiler's standard file manager. The file manager is kept with the
+     * context, and only the symbols of the system modules are kept between tasks, so the context
+     * may be reused by a task whose options differ in the class path, source path or output
+     * directories.
+     *
+     * @param out a Writer for additional output from the compiler;
+     * use {@code System.err} if {@code null}
+     * @param diagnosticListener a diagnostic listener; if {@code
+     * null} use the compiler's default method for reporting
+     * diagnostics
+     * @param options compiler options, {@code null} means no options
+     * @param classes names of classes to be processed by annotation
+     * processing, {@code null} means no class names
+     * @param sourceFiles the source files to compile
+     * @param worker that should be run with the task
+     * @return an object representing the compilation
+     * @throws RuntimeException if an unrecoverable error
+     * occurred in a user supplied component.  The
+     * {@linkplain Throwable#getCause() cause} will be the error in
+     * user code.
+     * @throws IllegalArgumentException if any of the options are invalid
+     */
+    public <Z> Z getTask(Writer out,
+                         DiagnosticListener<? super JavaFileObject> diagnosticListener,
+                         Iterable<String> options,
+                         Iterable<String> classes,
+                         Collection<? extends Path> sourceFiles,
+                         Worker<Z> worker) {
+        List<String> opts =
+                StreamSupport.stream(options.spliterator(), false)
+                             .collect(Collectors.toCollection(ArrayList::new));
+
+        ReusableContext ctx = acquire(platformOptions2Contexts, withoutPathOptions(opts), true);
 
-        synchronized (this) {
-            Queue<ReusableContext> cached =
-                    options2Contexts.getOrDefault(opts, EMPTY_QUEUE);
+        Iterable<? extends JavaFileObject> compilationUnits =
+                ctx.fileManager.getJavaFileObjectsFromPaths(sourceFiles);
 
-            if (cached.isEmpty()) {
-                ctx = new ReusableContext(opts);
-                statNew++;
-            } else {
-                ctx = cached.remove();
-                statReused++;
+        return runTask(ctx, out, ctx.fileManager, diagnosticListener, opts, classes, compilationUnits, worker);
+    }
+
+    /**Compiles as the command line compiler does for the given arguments, with a task from the pool,
+     * and returns its exit code. The arguments are split into options, source files and class names
+     * as by the command line compiler, and the source files are compiled as by
+     * {@link #getTask(Writer, DiagnosticListener, Iterable, Iterable, Collection, Worker) getTask},
+     * so the context may be reused by invocations whose options differ in their paths. Arguments
+     * only known to the command line compiler, such as {@code --help}, and arguments in error, are
+     * handed to a new command line compiler, to be handled and reported as it does.
+     *
+     * @param args the command line arguments
+     * @param out a Writer for the diagnostics and other output from the compiler
+     * @return the exit code, as by {@link Main.Result#exitCode}
+     */
+    public int compile(String[] args, PrintWriter out) {
+        List<String> options = new ArrayList<>();
+        List<String> classes = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+
+        if (!splitArguments(args, options, classes, files)) {
+            return new Main("javac", out).compile(args).exitCode;
+        }
+
+        try {
+            // the task reports crashes of the compiler and of processors, as the command line compiler does
+            return getTask(out, null, options, classes, files, task -> ((JavacTaskImpl) task).doCall(true)).exitCode;
+        } catch (IllegalArgumentException ex) {
+            out.println(ex.getMessage());
+            return Main.Result.CMDERR.exitCode;
+        } catch (OutOfMemoryError | StackOverflowError ex) {
+            crashMessage(out, "msg.resource", ex);
+            return Main.Result.SYSERR.exitCode;
+        } catch (RuntimeException | Error ex) {
+            crashMessage(out, "msg.bug", ex);
+            return Main.Result.ABNORMAL.exitCode;
+        } finally {
+            out.flush();
+        }
+    }
+    //where:
+        /**
+         * Print a message reporting an error thrown out of a task, with its stack trace, as
+         * {@link Main} does.
+         */
+        private static void crashMessage(PrintWriter out, String key, Throwable ex) {
+            Context context = new Context();
+            context.put(Log.outKey, out);
+            context.put(Log.errKey, out);
+            Log log = Log.instance(context);
+            log.printLines(Log.PrefixKind.JAVAC, key, JavaCompiler.version());
+            ex.printStackTrace(log.getWriter(Log.WriterKind.NOTICE));
+        }
+
+        /**
+         * Split the command line arguments into API options, class names and source files,
+         * expanding @-files; return false if some arguments can only be handled by the
+         * command line compiler.
+         */
+        private static boolean splitArguments(String[] args, List<String> options,
+                                              List<String> classes, List<Path> files) {
+            if (args.length == 0)
+                return false;
+
+            Iterable<String> allArgs;
+            try {
+                allArgs = CommandLine.parse(Main.ENV_OPT_NAME, Arrays.asList(args));
+            } catch (IOException | CommandLine.UnmatchedQuote ex) {
+                return false;
             }
+
+            for (Iterator<String> it = allArgs.iterator(); it.hasNext(); ) {
+                String arg = it.next();
+                Option o = Option.lookup(arg);
+                if (o == null) {
+                    return false;
+                } else if (o == Option.SOURCEFILE) {
+                    if (arg.endsWith(".java")) {
+                        Path file;
+                        try {
+                            file = Paths.get(arg);
+                        } catch (InvalidPathException ex) {
+                            return false;
+                        }
+                        if (!Files.isRegularFile(file))
+                            return false;
+                        files.add(file);
+                    } else {
+                        classes.add(arg);
+                    }
+                } else if (API_OPTIONS.contains(o)) {
+                    options.add(arg);
+                    if (o.hasSeparateArg() && !arg.contains("=")) {
+                        if (!it.hasNext())
+                            return false;
+                        options.add(it.next());
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static final Set<Option> API_OPTIONS = EnumSet.noneOf(Option.class);
+        static {
+            API_OPTIONS.addAll(Option.getJavacToolOptions());
+            API_OPTIONS.addAll(Option.getJavacFileManagerOptions());
         }
 
+    private synchronized ReusableContext acquire(Map<List<String>, Queue<ReusableContext>> contexts,
+                                                 List<String> key, boolean platformOnly) {
+        Queue<ReusableContext> cached = contexts.getOrDefault(key, EMPTY_QUEUE);
+
+        if (cached.isEmpty()) {
+            statNew++;
+            return new ReusableContext(key, platformOnly);
+        } else {
+            statReused++;
+            return cached.remove();
+        }
+    }
+
+    private <Z> Z runTask(ReusableContext ctx,
+                          Writer out,
+                          JavaFileManager fileManager,
+                          DiagnosticListener<? super JavaFileObject> diagnosticListener,
+                          List<String> opts,
+                          Iterable<String> classes,
+                          Iterable<? extends JavaFileObject> compilationUnits,
+                          Worker<Z> worker) {
         ctx.useCount++;
 
+        if (out != null && ctx.useCount > 1) {
+            //the log of a reused context still writes to the output of the previous task
+            Log.instance(ctx).setWriters(new PrintWriter(out, true));
+        }
+
         javi.compiler.internal.com.sun.tools.javac.api.JavacTaskImpl task =
                 (JavacTaskImpl) systemProvider.getTask(out, fileManager, diagnosticListener,
                                                        opts, classes, compilationUnits, ctx);
 
         task.addTaskListener(ctx);
 
+        if (Log.instance(ctx) instanceof ReusableContext.ReusableLog) {
+            ((ReusableContext.ReusableLog) Log.instance(ctx)).taskCreated();
+        }
+
+        if (ctx.fileManager != null) {
+            //report problems of the file manager through the task:
+            ctx.fileManager.setContext(ctx);
+        }
+
         if (out != null) {
             Log.instance(ctx).setWriters(new PrintWriter(out, true));
         }
@@ -196,22 +394,26 @@ public class JavacTaskPool {
         //the task/context may be in a broken state
         ctx.clear();
         if (ctx.polluted) {
-            statPolluted++;
+            synchronized (this) {
+                statPolluted++;
+            }
+            ctx.closeFileManager();
         } else {
             task.cleanup();
             synchronized (this) {
                 while (cacheSize() + 1 > maxPoolSize) {
                     ReusableContext toRemove =
-                            options2Contexts.values()
-                                            .stream()
-                                            .flatMap(Collection::stream)
-                                            .sorted((c1, c2) -> c1.timeStamp < c2.timeStamp ? -1 : 1)
-                                            .findFirst()
-                                            .get();
-                    options2Contexts.get(toRemove.arguments).remove(toRemove);
+                            Stream.concat(options2Contexts.values().stream(),
+                                          platformOptions2Contexts.values().stream())
+                                  .flatMap(Collection::stream)
+                                  .sorted((c1, c2) -> c1.timeStamp < c2.timeStamp ? -1 : 1)
+                                  .findFirst()
+                                  .get();
+                    contextsOf(toRemove).get(toRemove.arguments).remove(toRemove);
+                    toRemove.closeFileManager();
                     statRemoved++;
                 }
-                options2Contexts.computeIfAbsent(ctx.arguments, x -> new ArrayDeque<>()).add(ctx);
+                contextsOf(ctx).computeIfAbsent(ctx.arguments, x -> new ArrayDeque<>()).add(ctx);
                 ctx.timeStamp = id++;
             }
         }
@@ -220,14 +422,69 @@ public class JavacTaskPool {
     }
     //where:
         private long cacheSize() {
-            return options2Contexts.values().stream().flatMap(Collection::stream).count();
+            return Stream.concat(options2Contexts.values().stream(),
+                                 platformOptions2Contexts.values().stream())
+                         .flatMap(Collection::stream)
+                         .count();
+        }
+
+        private Map<List<String>, Queue<ReusableContext>> contextsOf(ReusableContext ctx) {
+            return ctx.fileManager != null ? platformOptions2Contexts : options2Contexts;
         }
 
+    /**
+     * Return the options without the options giving the class path, source path and output
+     * directories; these options only affect the file manager, and not the other components.
+     */
+    private static List<String> withoutPathOptions(List<String> options) {
+        List<String> result = new ArrayList<>(options.size());
+        for (Iterator<String> it = options.iterator(); it.hasNext(); ) {
+            String option = it.next();
+            Option o = Option.lookup(option, PATH_OPTIONS);
+            if (o == null) {
+                result.add(option);
+            } else if (o.hasSeparateArg() && !option.contains("=") && it.hasNext()) {
+                it.next();
+            }
+        }
+        return result;
+    }
+    //where:
+        private static final Set<Option> PATH_OPTIONS =
+                EnumSet.of(Option.CLASS_PATH, Option.SOURCE_PATH, Option.D, Option.S, Option.H);
+
+    /** Returns the number of tasks which reused a context from the pool. */
+    public synchronized int getReusedCount() {
+        return statReused;
+    }
+
+    /** Returns the number of contexts created, because none in the pool could be reused. */
+    public synchronized int getCreatedCount() {
+        return statNew;
+    }
+
+    /** Returns the number of contexts not returned to the pool, because a compilation left them
+     *  in a state that cannot be cleaned, such as by redefining core classes. */
+    public synchronized int getPollutedCount() {
+        return statPolluted;
+    }
+
+    /** Returns the number of contexts removed from the pool to keep it within its maximum size. */
+    public synchronized int getRemovedCount() {
+        return statRemoved;
+    }
+
+    /** Returns the number of contexts in the pool. */
+    public synchronized int getPooledCount() {
+        return (int) cacheSize();
+    }
+
     public void printStatistics(PrintStream out) {
         out.println(statReused + " reused Contexts");
         out.println(statNew + " newly created Contexts");
         out.println(statPolluted + " polluted Contexts");
         out.println(statRemoved + " removed Contexts");
+        ProcessorClassLoaderCache.instance().printStatistics(out);
     }
 
     public interface Worker<Z> {
@@ -241,12 +498,16 @@ public class JavacTaskPool {
         List<String> arguments;
         boolean polluted = false;
 
+        /** The file manager kept with the context, if only the platform symbols are kept. */
+        final JavacFileManager fileManager;
+
         int useCount;
         long timeStamp;
 
-        ReusableContext(List<String> arguments) {
+        ReusableContext(List<String> arguments, boolean platformOnly) {
             super();
             this.arguments = arguments;
+            this.fileManager = platformOnly ? new JavacFileManager(new Context(), false, null) : null;
             put(Log.logKey, ReusableLog.factory);
             put(JavaCompiler.compilerKey, ReusableJavaCompiler.factory);
         }
@@ -267,6 +528,7 @@ public class JavacTaskPool {
 
             if (ht.get(Log.logKey) instanceof ReusableLog) {
                 //log already inited - not first round
+                boolean allowModules = Feature.MODULES.allowedInContext(this);
                 ((ReusableLog)Log.instance(this)).clear();
                 Enter.instance(this).newRound();
                 ((ReusableJavaCompiler)ReusableJavaCompiler.instance(this)).clear();
@@ -284,6 +546,31 @@ public class JavacTaskPool {
                 Symtab syms = Symtab.instance(this);
                 pollutionScanner.scan(roots, syms);
                 roots.clear();
+
+                if (fileManager != null) {
+                    //the next task may have another class path: keep the symbols of the system
+                    //modules only, and let the processors be found again
+                    drop(JavacProcessingEnvironment.class);
+                    polluted |= !allowModules || !syms.retainSystemModules();
+                }
+            }
+
+            if (fileManager != null) {
+                try {
+                    fileManager.reset();
+                } catch (IOException ex) {
+                    polluted = true;
+                }
+            }
+        }
+
+        void closeFileManager() {
+            if (fileManager != null) {
+                try {
+                    fileManager.close();
+                } catch (IOException ex) {
+                    //ignore
+                }
             }
         }
 
@@ -396,6 +683,15 @@ public class JavacTaskPool {
                 this.context = context;
             }
 
+            /**
+             * Use the listener of the task now created with the context, if any; the diagnostics
+             * are written out otherwise, and the counts of errors and warnings are printed.
+             */
+            @SuppressWarnings("unchecked")
+            void taskCreated() {
+                diagListener = context.get(DiagnosticListener.class);
+            }
+
             void clear() {
                 recorded.clear();
                 sourceMap.clear();
@@ -412,6 +708,12 @@ public class JavacTaskPool {
                     public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
                         if (cachedListener == null) {
                             cachedListener = context.get(DiagnosticListener.class);
+                            if (cachedListener == null) {
+                                //no listener for this task: write the diagnostics out
+                                diagListener = null;
+                                writeDiagnostic((JCDiagnostic) diagnostic);
+                                return;
+                            }
                         }
                         cachedListener.report(diagnostic);
                     }
@@ -268,6 +268,14 @@ public abstract class Scope {
             return new ScopeImpl(owner);
         }
 
+        /** Create a new WriteableScope whose table can hold the given number
+         *  of symbols without being doubled. Used where the number of members
+         *  is known in advance, as for classes read from class files.
+         */
+        public static WriteableScope create(Symbol owner, int expectedSize) {
+            return new ScopeImpl(owner, expectedSize);
+        }
+
     }
 
     private static class ScopeImpl extends WriteableScope {
@@ -299,6 +307,11 @@ public abstract class Scope {
 
         int removeCount = 0;
 
+        /** The statistics this scope counts to, or null. Resolved once when a
+         *  scope is created, and shared with the scopes duplicated from it.
+         */
+        private final ScopeStatistics stats;
+
         /** Use as a "not-found" result for lookup.
          * Also used to mark deleted entries in the table.
          */
@@ -317,6 +330,9 @@ public abstract class Scope {
             Assert.check(owner != null);
             this.table = table;
             this.hashMask = table.length - 1;
+            this.stats = next != null ? next.stats : ScopeStatistics.current();
+            if (stats != null && (next == null || next.table != table))
+                stats.tables.increment();
         }
 
         /** Convenience constructor used for dup and dupUnshared. */
@@ -332,6 +348,23 @@ public abstract class Scope {
             this(null, owner, new Entry[INITIAL_SIZE]);
         }
 
+        /** Construct a new scope with given owner, using a fresh table
+         *  large enough to hold expectedSize entries.
+         */
+        ScopeImpl(Symbol owner, int expectedSize) {
+            this(null, owner, new Entry[tableSize(expectedSize)]);
+            if (stats != null && table.length > INITIAL_SIZE)
+                stats.presizedTables.increment();
+        }
+
+        /** The smallest table length holding n entries below the load factor
+         *  of 2/3 at which enter() doubles the table.
+         */
+        private static int tableSize(int n) {
+            int min = Math.min(n, 1 << 28) * 3 / 2 + 1;
+            return Math.max(INITIAL_SIZE, Integer.highestOneBit(min) << 1);
+        }
+
         /** Construct a fresh scope within this scope, with new owner,
          *  which shares its table with the outer scope. Used in connection with
          *  method leave if scope access is stack-like in order to avoid allocation
@@ -423,6 +456,10 @@ public abstract class Scope {
             // We don't need to update nelems for shared inherited scopes,
             // since that gets handled by leave().
             nelems = n;
+            if (stats != null) {
+                stats.rehashes.increment();
+                stats.rehashedEntries.add(n);
+            }
         }
 
         /** Enter symbol sym in this scope.
@@ -540,29 +577,45 @@ public abstract class Scope {
 
         /** Look for slot in the table.
          *  We use open addressing with double hashing.
+         *  The hash code of a shared name is its offset in the name table, so
+         *  names created one after the other, such as the fields and accessors
+         *  of a generated class, have close hash codes; they are mixed first so
+         *  that such names do not form long probe chains.
          */
         int getIndex (Name name) {
             int h = name.hashCode();
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
             int i = h & hashMask;
             // The expression below is always odd, so it is guaranteed
             // to be mutually prime with table.length, a power of 2.
             int x = hashMask - ((h + (h >> 16)) << 1);
             int d = -1; // Index of a deleted item.
-            for (;;) {
+            for (int probes = 1; ; probes++) {
                 Entry e = table[i];
-                if (e == null)
+                if (e == null) {
+                    countLookup(probes);
                     return d >= 0 ? d : i;
+                }
                 if (e == sentinel) {
                     // We have to keep searching even if we see a deleted item.
                     // However, remember the index in case we fail to find the name.
                     if (d < 0)
                         d = i;
-                } else if (e.sym.name == name)
+                } else if (e.sym.name == name) {
+                    countLookup(probes);
                     return i;
+                }
                 i = (i + x) & hashMask;
             }
         }
 
+        private void countLookup(int probes) {
+            if (stats != null)
+                stats.lookup(probes);
+        }
+
         public boolean anyMatch(Filter<Symbol> sf) {
             return getSymbols(sf, NON_RECURSIVE).iterator().hasNext();
         }
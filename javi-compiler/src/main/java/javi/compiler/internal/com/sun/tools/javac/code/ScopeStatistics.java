@@ -0,0 +1,65 @@
+package javi.compiler.internal.com.sun.tools.javac.code;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the hash tables of {@link Scope scopes}: how many tables were
+ * created and pre-sized, how often they were doubled, and how many slots a
+ * lookup probed. Collected during a compilation and printed at its end with
+ * {@code -XDscopeStatistics}. The statistics are bound to the thread running
+ * the compilation, and each scope looks them up once, when it is created, so
+ * compilations running at the same time in other threads are not counted.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class ScopeStatistics {
+
+    /** The statistics being collected by the current thread, if any. */
+    private static final ThreadLocal<ScopeStatistics> current = new ThreadLocal<>();
+
+    final LongAdder tables = new LongAdder();
+    final LongAdder presizedTables = new LongAdder();
+    final LongAdder rehashes = new LongAdder();
+    final LongAdder rehashedEntries = new LongAdder();
+    final LongAdder lookups = new LongAdder();
+    final LongAdder probes = new LongAdder();
+    final LongAccumulator maxProbes = new LongAccumulator(Math::max, 0);
+
+    /** Start collecting statistics in the current thread, and return them. */
+    public static ScopeStatistics start() {
+        ScopeStatistics s = new ScopeStatistics();
+        current.set(s);
+        return s;
+    }
+
+    /** Stop collecting the given statistics in the current thread. */
+    public static void stop(ScopeStatistics s) {
+        if (current.get() == s) {
+            current.remove();
+        }
+    }
+
+    /** The statistics being collected by the current thread, or null if none are. */
+    static ScopeStatistics current() {
+        return current.get();
+    }
+
+    void lookup(int n) {
+        lookups.increment();
+        probes.add(n);
+        maxProbes.accumulate(n);
+    }
+
+    @Override
+    public String toString() {
+        long n = lookups.sum();
+        return String.format("scope tables: %d created, %d pre-sized; %d doubled, moving %d entries%n"
+                             + "scope lookups: %d, %.2f slots probed on average, %d at most",
+                             tables.sum(), presizedTables.sum(), rehashes.sum(), rehashedEntries.sum(),
+                             n, n == 0 ? 0.0 : (double) probes.sum() / n, maxProbes.get());
+    }
+}
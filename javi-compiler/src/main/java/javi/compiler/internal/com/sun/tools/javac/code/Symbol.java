@@ -2176,14 +2176,22 @@ public abstract class Symbol extends AnnoConstruct implements PoolConstant, Elem
                 return null;
         }
 
+        /** The parameters of this method. The class reader leaves them unset
+         *  for methods whose class file gives neither names nor annotations
+         *  for them, so they are only created for the few binary methods whose
+         *  parameters are looked at.
+         */
         public List<VarSymbol> params() {
             owner.complete();
             if (params == null) {
+                boolean binary = isFromClassFile(owner);
                 ListBuffer<VarSymbol> newParams = new ListBuffer<>();
                 int i = 0;
                 for (Type t : type.getParameterTypes()) {
                     Name paramName = name.table.fromString("arg" + i);
-                    VarSymbol param = new VarSymbol(PARAMETER, paramName, t, this);
+                    VarSymbol param = binary
+                            ? new ParamSymbol(PARAMETER, paramName, t, this)
+                            : new VarSymbol(PARAMETER, paramName, t, this);
                     newParams.append(param);
                     i++;
                 }
@@ -2193,6 +2201,21 @@ public abstract class Symbol extends AnnoConstruct implements PoolConstant, Elem
             return params;
         }
 
+        /** The parameters of this method if they are known: those of a method read
+         *  from a class file always are, as params() creates them on demand; null
+         *  for other methods whose parameters were not set.
+         */
+        public List<VarSymbol> paramsOrNull() {
+            return params == null && isFromClassFile(owner) ? params() : params;
+        }
+
+        private static boolean isFromClassFile(Symbol owner) {
+            if (owner.kind != TYP)
+                return false;
+            JavaFileObject classfile = ((ClassSymbol) owner).classfile;
+            return classfile != null && classfile.getKind() == JavaFileObject.Kind.CLASS;
+        }
+
         public Symbol asMemberOf(Type site, Types types) {
             return new MethodSymbol(flags_field, name, types.memberType(site, this), owner);
         }
@@ -706,6 +706,29 @@ public class Symtab {
         classes.getOrDefault(flatName, EMPTY).remove(msym);
     }
 
+    /**
+     * Forget the classes and packages of the unnamed module and of the
+     * classes without a module, keeping only those of the system modules,
+     * so that the table can be used by a compilation with another class path.
+     * Returns false, and leaves the table alone, if there are other modules,
+     * such as modules from the module path, that cannot be forgotten.
+     */
+    public boolean retainSystemModules() {
+        for (ModuleSymbol msym : modules.values()) {
+            if ((msym.flags_field & SYSTEM_MODULE) == 0)
+                return false;
+        }
+        for (ModuleSymbol msym : List.of(unnamedModule, noModule)) {
+            classes.values().removeIf(m -> m.remove(msym) != null && m.isEmpty());
+            packages.values().removeIf(m -> m.remove(msym) != null && m.isEmpty());
+            msym.enclosedPackages = List.nil();
+            addRootPackageFor(msym);
+        }
+        unnamedModule.enclosedPackages = unnamedModule.enclosedPackages.prepend(unnamedModule.unnamedPackage);
+        classFields.clear();
+        return true;
+    }
+
     public Iterable<ClassSymbol> getAllClasses() {
         return () -> Iterators.createCompoundIterator(classes.values(), v -> v.values().iterator());
     }
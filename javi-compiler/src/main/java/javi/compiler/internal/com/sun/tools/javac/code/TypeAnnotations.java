@@ -366,7 +366,7 @@ public class TypeAnnotations {
                     // note that the typeAnnotations will also be added to the owner below.
                 } else {
                     MethodType methType = sym.owner.type.asMethodType();
-                    List<VarSymbol> params = ((MethodSymbol)sym.owner).params;
+                    List<VarSymbol> params = ((MethodSymbol)sym.owner).params();
                     List<Type> oldArgs = methType.argtypes;
                     ListBuffer<Type> newArgs = new ListBuffer<>();
                     while (params.nonEmpty()) {
@@ -27,6 +27,7 @@ package javi.compiler.internal.com.sun.tools.javac.comp;
 
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import javi.api.lang.model.element.ElementKind;
 import javi.api.tools.JavaFileObject;
@@ -222,6 +223,13 @@ public class Attr extends JCTree.Visitor {
      */
     String sourceName;
 
+    /**
+     * Called with the compilation unit of each class about to be attributed,
+     * so that bodies the parser skipped in it are parsed first; set by
+     * JavaCompiler when source files may be parsed without bodies.
+     */
+    public Consumer<JCCompilationUnit> completeBodies;
+
     /** Check kind and type of given tree against protokind and prototype.
      *  If check succeeds, store type in tree and return it.
      *  If check fails, store errType in tree and return it.
@@ -5092,6 +5100,10 @@ public class Attr extends JCTree.Visitor {
             // Get environment current at the point of class definition.
             Env<AttrContext> env = typeEnvs.get(c);
 
+            if (completeBodies != null && env != null) {
+                completeBodies.accept(env.toplevel);
+            }
+
             if (c.isSealed() &&
                     !c.isEnum() &&
                     !c.isPermittedExplicit &&
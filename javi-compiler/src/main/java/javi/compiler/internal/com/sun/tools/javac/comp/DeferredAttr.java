@@ -545,9 +545,13 @@ public class DeferredAttr extends JCTree.Visitor {
 
                 @Override
                 public void scan(JCTree tree) {
+                    if (found) {
+                        return;
+                    }
                     if (tree != null &&
                             tree.pos() == pos) {
                         found = true;
+                        return;
                     }
                     super.scan(tree);
                 }
@@ -470,7 +470,7 @@ public class Enter extends JCTree.Visitor {
         c.completer = Completer.NULL_COMPLETER; // do not allow the initial completer linger on.
         c.flags_field = chk.checkFlags(tree.pos(), tree.mods.flags, c, tree);
         c.sourcefile = env.toplevel.sourcefile;
-        c.members_field = WriteableScope.create(c);
+        c.members_field = WriteableScope.create(c, tree.defs.size());
         c.clearAnnotationMetadata();
 
         ClassType ct = (ClassType)c.type;
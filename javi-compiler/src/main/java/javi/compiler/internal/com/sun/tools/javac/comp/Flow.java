@@ -2218,7 +2218,7 @@ public class Flow {
                 }
                 if (log.nerrors !=  prevErrors ||
                     flowKind.isFinal() ||
-                    new Bits(uninitsEntry).diffSet(uninitsWhenTrue).nextBit(firstadr)==-1)
+                    uninitsEntry.nextBitNotIn(uninitsWhenTrue, firstadr)==-1)
                     break;
                 inits.assign(initsWhenTrue);
                 uninits.assign(uninitsEntry.andSet(uninitsWhenTrue));
@@ -2252,7 +2252,7 @@ public class Flow {
                 resolveContinues(tree);
                 if (log.nerrors != prevErrors ||
                     flowKind.isFinal() ||
-                    new Bits(uninitsEntry).diffSet(uninits).nextBit(firstadr) == -1) {
+                    uninitsEntry.nextBitNotIn(uninits, firstadr) == -1) {
                     break;
                 }
                 uninits.assign(uninitsEntry.andSet(uninits));
@@ -2298,7 +2298,7 @@ public class Flow {
                 scan(tree.step);
                 if (log.nerrors != prevErrors ||
                     flowKind.isFinal() ||
-                    new Bits(uninitsEntry).diffSet(uninits).nextBit(firstadr) == -1)
+                    uninitsEntry.nextBitNotIn(uninits, firstadr) == -1)
                     break;
                 uninits.assign(uninitsEntry.andSet(uninits));
                 flowKind = FlowKind.SPECULATIVE_LOOP;
@@ -2333,7 +2333,7 @@ public class Flow {
                 resolveContinues(tree);
                 if (log.nerrors != prevErrors ||
                     flowKind.isFinal() ||
-                    new Bits(uninitsEntry).diffSet(uninits).nextBit(firstadr) == -1)
+                    uninitsEntry.nextBitNotIn(uninits, firstadr) == -1)
                     break;
                 uninits.assign(uninitsEntry.andSet(uninits));
                 flowKind = FlowKind.SPECULATIVE_LOOP;
@@ -26,6 +26,7 @@
 package javi.compiler.internal.com.sun.tools.javac.comp;
 
 import javi.compiler.internal.com.sun.tools.javac.code.Symbol;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.ClassSymbol;
 import javi.compiler.internal.com.sun.tools.javac.code.Symbol.OperatorSymbol;
 import javi.compiler.internal.com.sun.tools.javac.code.Symtab;
 import javi.compiler.internal.com.sun.tools.javac.code.Type;
@@ -82,6 +83,24 @@ public class Operators {
     /** The names of all operators. */
     private Name[] opname = new Name[Tag.getNumberOfOperators()];
 
+    /** The number of primitive type tags; these are the first constants of {@link TypeTag}. */
+    private static final int PRIMITIVE_TAGS = TypeTag.BOOLEAN.ordinal() + 1;
+
+    /** The number of operand kinds in the dispatch tables: each primitive type and its box. */
+    private static final int OPERAND_KINDS = 2 * PRIMITIVE_TAGS;
+
+    /**
+     * Dispatch tables of resolved unary and binary operators, by operator index; each table is
+     * indexed by the {@linkplain #operandIndex kinds} of the operands. Only operands of primitive
+     * and boxed types are entered, as the resolution of an operator for those depends on their
+     * kinds alone. Tables are created on first use, and entries on first successful resolution.
+     */
+    private final OperatorSymbol[][] unaryTable = new OperatorSymbol[Tag.getNumberOfOperators()][];
+    private final OperatorSymbol[][] binaryTable = new OperatorSymbol[Tag.getNumberOfOperators()][];
+
+    /** The box classes, by primitive type tag (lazily populated). */
+    private ClassSymbol[] boxClasses;
+
     public static Operators instance(Context context) {
         Operators instance = context.get(operatorsKey);
         if (instance == null)
@@ -147,22 +166,76 @@ public class Operators {
      * Entry point for resolving a unary operator given an operator tag and an argument type.
      */
     OperatorSymbol resolveUnary(DiagnosticPosition pos, JCTree.Tag tag, Type op) {
-        return resolve(tag,
+        int index = operandIndex(op);
+        OperatorSymbol[] table = null;
+        if (index >= 0) {
+            table = unaryTable[tag.operatorIndex()];
+            if (table == null) {
+                table = unaryTable[tag.operatorIndex()] = new OperatorSymbol[OPERAND_KINDS];
+            } else if (table[index] != null) {
+                return table[index];
+            }
+        }
+        OperatorSymbol sym = resolve(tag,
                 unaryOperators,
                 unop -> unop.test(op),
                 unop -> unop.resolve(op),
                 () -> reportErrorIfNeeded(pos, tag, op));
+        if (table != null && sym != noOpSymbol) {
+            table[index] = sym;
+        }
+        return sym;
     }
 
     /**
      * Entry point for resolving a binary operator given an operator tag and a pair of argument types.
      */
     OperatorSymbol resolveBinary(DiagnosticPosition pos, JCTree.Tag tag, Type op1, Type op2) {
-        return resolve(tag,
+        int index1 = operandIndex(op1);
+        int index2 = index1 >= 0 ? operandIndex(op2) : -1;
+        int index = index1 * OPERAND_KINDS + index2;
+        OperatorSymbol[] table = null;
+        if (index2 >= 0) {
+            table = binaryTable[tag.operatorIndex()];
+            if (table == null) {
+                table = binaryTable[tag.operatorIndex()] = new OperatorSymbol[OPERAND_KINDS * OPERAND_KINDS];
+            } else if (table[index] != null) {
+                return table[index];
+            }
+        }
+        OperatorSymbol sym = resolve(tag,
                 binaryOperators,
                 binop -> binop.test(op1, op2),
                 binop -> binop.resolve(op1, op2),
                 () -> reportErrorIfNeeded(pos, tag, op1, op2));
+        if (table != null && sym != noOpSymbol) {
+            table[index] = sym;
+        }
+        return sym;
+    }
+
+    /**
+     * Return the index of an operand type in the dispatch tables: the tag ordinal of a primitive
+     * type, that ordinal plus {@link #PRIMITIVE_TAGS} for a box class, or -1 for any other type.
+     * Primitive and boxed operands are told apart, as e.g. {@code ==} compares two boxes by reference.
+     */
+    private int operandIndex(Type t) {
+        if (t.isPrimitive()) {
+            return t.getTag().ordinal();
+        } else if (t.hasTag(TypeTag.CLASS)) {
+            if (boxClasses == null) {
+                boxClasses = new ClassSymbol[PRIMITIVE_TAGS];
+                for (int i = 0; i < PRIMITIVE_TAGS; i++) {
+                    boxClasses[i] = types.boxedClass(syms.typeOfTag[i]);
+                }
+            }
+            for (int i = 0; i < PRIMITIVE_TAGS; i++) {
+                if (t.tsym == boxClasses[i]) {
+                    return PRIMITIVE_TAGS + i;
+                }
+            }
+        }
+        return -1;
     }
 
     /**
@@ -172,11 +245,12 @@ public class Operators {
      */
     private <O> OperatorSymbol resolve(Tag tag, Map<Name, List<O>> opMap, Predicate<O> opTestFunc,
                        Function<O, OperatorSymbol> resolveFunc, Supplier<OperatorSymbol> noResultFunc) {
-        return opMap.get(operatorName(tag)).stream()
-                .filter(opTestFunc)
-                .map(resolveFunc)
-                .findFirst()
-                .orElseGet(noResultFunc);
+        for (O op : opMap.get(operatorName(tag))) {
+            if (opTestFunc.test(op)) {
+                return resolveFunc.apply(op);
+            }
+        }
+        return noResultFunc.get();
     }
 
     /**
@@ -284,10 +358,12 @@ public class Operators {
          * otherwise a dummy symbol is returned.
          */
         final OperatorSymbol doLookup(Predicate<OperatorSymbol> applicabilityTest) {
-            return Stream.of(alternatives.orElseGet(this::initOperators))
-                    .filter(applicabilityTest)
-                    .findFirst()
-                    .orElse(noOpSymbol);
+            for (OperatorSymbol op : alternatives.orElseGet(this::initOperators)) {
+                if (applicabilityTest.test(op)) {
+                    return op;
+                }
+            }
+            return noOpSymbol;
         }
 
         /**
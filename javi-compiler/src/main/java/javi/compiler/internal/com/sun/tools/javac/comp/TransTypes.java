@@ -294,9 +294,9 @@ public class TransTypes extends TreeTranslator {
     private List<VarSymbol> createBridgeParams(MethodSymbol impl, MethodSymbol bridge,
             Type bridgeType) {
         List<VarSymbol> bridgeParams = null;
-        if (impl.params != null) {
+        List<VarSymbol> implParams = impl.paramsOrNull();
+        if (implParams != null) {
             bridgeParams = List.nil();
-            List<VarSymbol> implParams = impl.params;
             Type.MethodType mType = (Type.MethodType)bridgeType;
             List<Type> argTypes = mType.argtypes;
             while (implParams.nonEmpty() && argTypes.nonEmpty()) {
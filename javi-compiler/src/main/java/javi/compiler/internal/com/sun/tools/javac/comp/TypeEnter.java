@@ -1339,11 +1339,9 @@ public class TypeEnter implements Completer {
                 argtypes = argtypes.tail;
                 params = params.prepend(new VarSymbol(PARAMETER, make.paramName(0), enclosingType(), csym));
             }
-            if (constr.params != null) {
-                for (VarSymbol p : constr.params) {
-                    params.add(new VarSymbol(PARAMETER | p.flags(), p.name, argtypes.head, csym));
-                    argtypes = argtypes.tail;
-                }
+            for (VarSymbol p : constr.params()) {
+                params.add(new VarSymbol(PARAMETER | p.flags(), p.name, argtypes.head, csym));
+                argtypes = argtypes.tail;
             }
             csym.params = params.toList();
             return csym;
@@ -41,12 +41,12 @@ import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javi.api.tools.JavaFileManager;
 import javi.api.tools.JavaFileObject;
@@ -276,6 +276,16 @@ public abstract class BaseFileManager implements JavaFileManager {
         }
     }
 
+    /**
+     * Forget the values given to the options handled by this file manager,
+     * and return all locations to their default values.
+     */
+    protected void resetOptions() throws IOException {
+        encodingName = null;
+        multiReleaseValue = null;
+        locations.reset();
+    }
+
     /**
      * Call handleOption for collection of options and corresponding values.
      * @param map a collection of options and corresponding values
@@ -463,7 +473,16 @@ public abstract class BaseFileManager implements JavaFileManager {
         contentCache.remove(file);
     }
 
-    protected final Map<JavaFileObject, ContentCacheEntry> contentCache = new HashMap<>();
+    /**
+     * Output directories known to exist, so that writing many files into the same
+     * package only checks for (and creates) their directory once. Files may be
+     * written from several threads, see {@code jvm.AsyncClassOutput}. Cleared on
+     * flush, which the compiler does at the end of each compilation, and on
+     * close and reset, as the directories may be deleted in between.
+     */
+    protected final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+
+    protected final Map<JavaFileObject, ContentCacheEntry> contentCache = new ConcurrentHashMap<>();
 
     protected static class ContentCacheEntry {
         final long timestamp;
@@ -35,24 +35,38 @@ import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A package-oriented index into the jrt: filesystem.
  */
 public class JRTIndex {
     /** Get a shared instance of the cache. */
-    private static JRTIndex sharedInstance;
-    public synchronized static JRTIndex getSharedInstance() {
-        if (sharedInstance == null) {
-            try {
-                sharedInstance = new JRTIndex();
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
+    private static volatile JRTIndex sharedInstance;
+    public static JRTIndex getSharedInstance() {
+        JRTIndex instance = sharedInstance;
+        if (instance == null) {
+            synchronized (JRTIndex.class) {
+                instance = sharedInstance;
+                if (instance == null) {
+                    try {
+                        sharedInstance = instance = new JRTIndex();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
             }
         }
-        return sharedInstance;
+        return instance;
     }
 
+    /** The packages {@link #prefetch prefetched} by {@code -XDprefetchJRT} when no packages are given. */
+    public static final List<String> DEFAULT_PREFETCH_PACKAGES = List.of(
+            "java.lang", "java.lang.annotation", "java.util", "java.util.function", "java.io");
+
+    /** The number of entries held strongly. */
+    private static final int RECENT_ENTRIES = 256;
+
     /** Get a context-specific instance of a cache. */
     public static JRTIndex instance(Context context) {
         try {
@@ -82,8 +96,19 @@ public class JRTIndex {
 
     /**
      * A lazily evaluated set of entries about the contents of the jrt: file system.
+     * Lookups do not lock; an entry is computed at most once at a time, with
+     * other threads asking for it waiting for the result.
+     */
+    private final ConcurrentHashMap<RelativeDirectory, SoftReference<Entry>> entries;
+
+    /**
+     * The most recently used entries, which are held strongly so that a long-lived
+     * compiler under memory pressure does not keep recomputing the packages it uses
+     * all the time. Recency is tracked with a clock updated without synchronization;
+     * races only blur the order of entries used at about the same time.
      */
-    private final Map<RelativeDirectory, SoftReference<Entry>> entries;
+    private final Map<RelativeDirectory, Entry> recent = new ConcurrentHashMap<>();
+    private int clock;
 
     /**
      * An entry provides cached info about a specific package directory within jrt:.
@@ -105,6 +130,9 @@ public class JRTIndex {
          */
         final CtSym ctSym;
 
+        /** The value of the clock when this entry was last used. */
+        int lastUsed;
+
         private Entry(Map<String, Path> files, Set<RelativeDirectory> subdirs, CtSym ctSym) {
             this.files = files;
             this.subdirs = subdirs;
@@ -164,54 +192,114 @@ public class JRTIndex {
      */
     private JRTIndex() throws IOException {
         jrtfs = FileSystems.getFileSystem(URI.create("jrt:/"));
-        entries = new HashMap<>();
+        entries = new ConcurrentHashMap<>();
     }
 
     public CtSym getCtSym(CharSequence packageName) throws IOException {
         return getEntry(RelativeDirectory.forPackage(packageName)).ctSym;
     }
 
-    synchronized Entry getEntry(RelativeDirectory rd) throws IOException {
+    Entry getEntry(RelativeDirectory rd) throws IOException {
+        Entry e = recent.get(rd);
+        if (e != null) {
+            e.lastUsed = ++clock;
+            return e;
+        }
         SoftReference<Entry> ref = entries.get(rd);
-        Entry e = (ref == null) ? null : ref.get();
+        e = (ref == null) ? null : ref.get();
         if (e == null) {
-            Map<String, Path> files = new LinkedHashMap<>();
-            Set<RelativeDirectory> subdirs = new LinkedHashSet<>();
-            Path dir;
-            if (rd.path.isEmpty()) {
-                dir = jrtfs.getPath("/modules");
-            } else {
-                Path pkgs = jrtfs.getPath("/packages");
-                dir = pkgs.resolve(rd.getPath().replaceAll("/$", "").replace("/", "."));
+            Entry[] result = new Entry[1];
+            try {
+                entries.compute(rd, (k, r) -> {
+                    result[0] = (r == null) ? null : r.get();
+                    if (result[0] != null)
+                        return r;
+                    try {
+                        result[0] = readEntry(k);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    return new SoftReference<>(result[0]);
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
             }
-            if (Files.exists(dir)) {
-                try (DirectoryStream<Path> modules = Files.newDirectoryStream(dir)) {
-                    for (Path module: modules) {
-                        if (Files.isSymbolicLink(module))
-                            module = Files.readSymbolicLink(module);
-                        Path p = rd.resolveAgainst(module);
-                        if (!Files.exists(p))
-                            continue;
-                        try (DirectoryStream<Path> stream = Files.newDirectoryStream(p)) {
-                            for (Path entry: stream) {
-                                String name = entry.getFileName().toString();
-                                if (Files.isRegularFile(entry)) {
-                                    // TODO: consider issue of files with same name in different modules
-                                    files.put(name, entry);
-                                } else if (Files.isDirectory(entry)) {
-                                    subdirs.add(new RelativeDirectory(rd, name));
-                                }
+            e = result[0];
+        }
+        e.lastUsed = ++clock;
+        recent.put(rd, e);
+        if (recent.size() > RECENT_ENTRIES) {
+            trimRecent();
+        }
+        return e;
+    }
+
+    /** Drop the least recently used entries from the strongly held ones. */
+    private synchronized void trimRecent() {
+        while (recent.size() > RECENT_ENTRIES) {
+            Map.Entry<RelativeDirectory, Entry> oldest = null;
+            for (Map.Entry<RelativeDirectory, Entry> me : recent.entrySet()) {
+                if (oldest == null || me.getValue().lastUsed - oldest.getValue().lastUsed < 0) {
+                    oldest = me;
+                }
+            }
+            recent.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * Read the entries of some packages on a background thread, so that they are
+     * ready when the compiler gets to them. Package names use dots.
+     */
+    public void prefetch(Collection<String> packageNames) {
+        Thread t = new Thread(() -> {
+            for (String p : packageNames) {
+                try {
+                    getEntry(RelativeDirectory.forPackage(p));
+                } catch (IOException | RuntimeException e) {
+                    // the compiler will report it if it needs the package
+                }
+            }
+        }, "javac jrt prefetch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private Entry readEntry(RelativeDirectory rd) throws IOException {
+        Map<String, Path> files = new LinkedHashMap<>();
+        Set<RelativeDirectory> subdirs = new LinkedHashSet<>();
+        Path dir;
+        if (rd.path.isEmpty()) {
+            dir = jrtfs.getPath("/modules");
+        } else {
+            Path pkgs = jrtfs.getPath("/packages");
+            dir = pkgs.resolve(rd.getPath().replaceAll("/$", "").replace("/", "."));
+        }
+        if (Files.exists(dir)) {
+            try (DirectoryStream<Path> modules = Files.newDirectoryStream(dir)) {
+                for (Path module: modules) {
+                    if (Files.isSymbolicLink(module))
+                        module = Files.readSymbolicLink(module);
+                    Path p = rd.resolveAgainst(module);
+                    if (!Files.exists(p))
+                        continue;
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(p)) {
+                        for (Path entry: stream) {
+                            String name = entry.getFileName().toString();
+                            if (Files.isRegularFile(entry)) {
+                                // TODO: consider issue of files with same name in different modules
+                                files.put(name, entry);
+                            } else if (Files.isDirectory(entry)) {
+                                subdirs.add(new RelativeDirectory(rd, name));
                             }
                         }
                     }
                 }
             }
-            e = new Entry(Collections.unmodifiableMap(files),
-                    Collections.unmodifiableSet(subdirs),
-                    getCtInfo(rd));
-            entries.put(rd, new SoftReference<>(e));
         }
-        return e;
+        return new Entry(Collections.unmodifiableMap(files),
+                Collections.unmodifiableSet(subdirs),
+                getCtInfo(rd));
     }
 
     public boolean isInJRT(FileObject fo) {
@@ -256,5 +344,5 @@ public class JRTIndex {
 
     }
 
-    private ResourceBundle ctBundle;
+    private volatile ResourceBundle ctBundle;
 }
@@ -448,13 +448,13 @@ public class JavacFileManager extends BaseFileManager implements StandardJavaFil
         }
     }
 
-    private synchronized JRTIndex getJRTIndex() {
+    private JRTIndex getJRTIndex() {
         if (jrtIndex == null)
             jrtIndex = JRTIndex.getSharedInstance();
         return jrtIndex;
     }
 
-    private JRTIndex jrtIndex;
+    private volatile JRTIndex jrtIndex;
 
     private final class DirectoryContainer implements Container {
         private final Path directory;
@@ -713,6 +713,7 @@ public class JavacFileManager extends BaseFileManager implements StandardJavaFil
     @Override @DefinedBy(Api.COMPILER)
     public void flush() {
         contentCache.clear();
+        knownDirectories.clear();
         pathsAndContainersByLocationAndRelativeDirectory.clear();
         nonIndexingContainersByLocation.clear();
     }
@@ -735,6 +736,24 @@ public class JavacFileManager extends BaseFileManager implements StandardJavaFil
         pathsAndContainersByLocationAndRelativeDirectory.clear();
         nonIndexingContainersByLocation.clear();
         contentCache.clear();
+        knownDirectories.clear();
+    }
+
+    /**
+     * Close the file manager and forget the options and locations given to it,
+     * so that it can be used for another, unrelated compilation.
+     */
+    public void reset() throws IOException {
+        try {
+            resetOptions();
+            for (Container container: containers.values()) {
+                container.close();
+            }
+        } finally {
+            containers.clear();
+            // also forgets the output directories, which may be deleted before the next compilation
+            flush();
+        }
     }
 
     @Override @DefinedBy(Api.COMPILER)
@@ -170,6 +170,21 @@ public class Locations {
         }
     }
 
+    /**
+     * Close the file systems opened for the locations and return all
+     * locations to their default values.
+     */
+    void reset() throws IOException {
+        try {
+            close();
+        } finally {
+            closeables.clear();
+            fileSystems.clear();
+            fsEnv = Collections.emptyMap();
+            initHandlers();
+        }
+    }
+
     void update(Log log, boolean warn, FSInfo fsInfo) {
         this.log = log;
         this.warn = warn;
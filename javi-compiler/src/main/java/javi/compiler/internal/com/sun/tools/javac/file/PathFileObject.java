@@ -36,12 +36,14 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.CharsetDecoder;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.Normalizer;
 import java.util.Objects;
 
@@ -469,6 +471,18 @@ public abstract class PathFileObject implements JavaFileObject {
         return Files.newOutputStream(path);
     }
 
+    /**
+     * Open a channel writing this file, like {@link #openOutputStream}, so that
+     * the class writer can write its buffers without copying them.
+     */
+    public WritableByteChannel openWritableChannel() throws IOException {
+        fileManager.updateLastUsedTime();
+        fileManager.flushCache(this);
+        ensureParentDirectoriesExist();
+        return Files.newByteChannel(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
     @Override @DefinedBy(Api.COMPILER)
     public Reader openReader(boolean ignoreEncodingErrors) throws IOException {
         CharsetDecoder decoder = fileManager.getDecoder(fileManager.getEncodingName(), ignoreEncodingErrors);
@@ -548,12 +562,15 @@ public abstract class PathFileObject implements JavaFileObject {
     private void ensureParentDirectoriesExist() throws IOException {
         if (!hasParents) {
             Path parent = path.getParent();
-            if (parent != null && !Files.isDirectory(parent)) {
-                try {
-                    Files.createDirectories(parent);
-                } catch (IOException e) {
-                    throw new IOException("could not create parent directories", e);
+            if (parent != null && !fileManager.knownDirectories.contains(parent)) {
+                if (!Files.isDirectory(parent)) {
+                    try {
+                        Files.createDirectories(parent);
+                    } catch (IOException e) {
+                        throw new IOException("could not create parent directories", e);
+                    }
                 }
+                fileManager.knownDirectories.add(parent);
             }
             hasParents = true;
         }
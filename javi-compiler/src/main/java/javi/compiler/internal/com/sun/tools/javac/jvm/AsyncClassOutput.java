@@ -0,0 +1,148 @@
+package javi.compiler.internal.com.sun.tools.javac.jvm;
+
+import javi.api.tools.JavaFileObject;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.ClassSymbol;
+import javi.compiler.internal.com.sun.tools.javac.resources.CompilerProperties.Errors;
+import javi.compiler.internal.com.sun.tools.javac.util.Context;
+import javi.compiler.internal.com.sun.tools.javac.util.Log;
+import javi.compiler.internal.com.sun.tools.javac.util.Options;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An output stage that writes finished class files on a pool of writer threads,
+ * so that the compiler thread does not block on file system latency. It is
+ * enabled with {@code -XDasyncOutput} (or {@code -XDasyncOutput=<threads>}).
+ *
+ * <p>Class files are assembled by {@link ClassWriter} on the compiler thread as
+ * usual; only writing the output file is deferred. Write failures
+ * are collected and reported through {@link Log} when the output is
+ * {@linkplain #flush flushed}, which {@code JavaCompiler} does at the end of
+ * each compilation and {@code JavacTaskImpl} at the end of each generate call.
+ * Class files are therefore only complete once the compilation or the generate
+ * call returns. While task listeners are registered, {@link ClassWriter} writes
+ * synchronously instead, so that a class file exists when the
+ * {@code GENERATE} event for its class is finished.
+ *
+ * <p>The file manager must tolerate files being opened from several threads;
+ * this is the case for the standard file manager.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class AsyncClassOutput {
+    protected static final Context.Key<AsyncClassOutput> asyncClassOutputKey = new Context.Key<>();
+
+    private static final int DEFAULT_THREADS = 4;
+
+    private final Log log;
+
+    /** The writer threads, created on first use. */
+    private ExecutorService executor;
+
+    private final int threads;
+
+    /** The writes submitted since the last flush. */
+    private final List<PendingWrite> pending = new ArrayList<>();
+
+    /** Get the AsyncClassOutput instance for this context, or null if asynchronous output is not enabled. */
+    public static AsyncClassOutput instance(Context context) {
+        AsyncClassOutput instance = context.get(asyncClassOutputKey);
+        if (instance == null) {
+            String threads = Options.instance(context).get("asyncOutput");
+            if (threads == null)
+                return null;
+            instance = new AsyncClassOutput(context, threads);
+        }
+        return instance;
+    }
+
+    protected AsyncClassOutput(Context context, String threads) {
+        context.put(asyncClassOutputKey, this);
+        log = Log.instance(context);
+        int n;
+        try {
+            n = Integer.parseInt(threads);
+        } catch (NumberFormatException ex) {
+            n = DEFAULT_THREADS;
+        }
+        this.threads = Math.max(1, n);
+    }
+
+    /** Queue a task writing the class file of class `c'.
+     */
+    public void write(ClassSymbol c, Callable<?> task) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "javac class writer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        pending.add(new PendingWrite(c, executor.submit(task)));
+    }
+
+    /** Wait for all queued class files to be written, and report any
+     *  failures. Returns the number of class files that could not be written.
+     */
+    public int flush() {
+        int failed = 0;
+        boolean interrupted = false;
+        for (PendingWrite w : pending) {
+            Throwable error = null;
+            while (true) {
+                try {
+                    w.future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    error = ex.getCause();
+                    break;
+                }
+            }
+            if (error != null) {
+                failed++;
+                JavaFileObject prev = log.useSource(w.sym.sourcefile);
+                try {
+                    log.error(Errors.ClassCantWrite(w.sym, error.getMessage()));
+                } finally {
+                    log.useSource(prev);
+                }
+            }
+        }
+        pending.clear();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return failed;
+    }
+
+    /** Flush pending writes and stop the writer threads.
+     */
+    public void close() {
+        flush();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static class PendingWrite {
+        final ClassSymbol sym;
+        final Future<?> future;
+
+        PendingWrite(ClassSymbol sym, Future<?> future) {
+            this.sym = sym;
+            this.future = future;
+        }
+    }
+}
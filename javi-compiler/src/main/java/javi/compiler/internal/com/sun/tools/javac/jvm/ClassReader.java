@@ -1323,7 +1323,8 @@ public class ClassReader {
         nt = new NameAndType(nt.name, new MethodType(nt.type.getParameterTypes().tail,
                                  nt.type.getReturnType(),
                                  nt.type.getThrownTypes(),
-                                 syms.methodClass));
+                                 syms.methodClass),
+                             types);
         // Try searching again
         return findMethod(nt, scope, flags);
     }
@@ -2359,6 +2360,12 @@ public class ClassReader {
                 firstParam += skip;
             }
         }
+        Assert.checkNull(sym.params);
+        if (parameterNameIndices == null && parameterAnnotations == null) {
+            // nothing to record for the parameters: leave them to
+            // MethodSymbol.params(), which creates the same symbols on demand
+            return;
+        }
         Set<Name> paramNames = new HashSet<>();
         ListBuffer<VarSymbol> params = new ListBuffer<>();
         int nameIndex = firstParam;
@@ -2379,7 +2386,6 @@ public class ClassReader {
         if (parameterAnnotations != null && parameterAnnotations.length != annotationIndex) {
             throw badClassFile("bad.runtime.invisible.param.annotations", sym);
         }
-        Assert.checkNull(sym.params);
         sym.params = params.toList();
         parameterAnnotations = null;
         parameterNameIndices = null;
@@ -2468,9 +2474,6 @@ public class ClassReader {
     void readClass(ClassSymbol c) {
         ClassType ct = (ClassType)c.type;
 
-        // allocate scope for members
-        c.members_field = WriteableScope.create(c);
-
         // prepare type variable table
         typevars = typevars.dup(currentOwner);
         if (ct.getEnclosingType().hasTag(CLASS))
@@ -2513,6 +2516,10 @@ public class ClassReader {
         for (int i = 0; i < fieldCount; i++) skipMember();
         char methodCount = nextChar();
         for (int i = 0; i < methodCount; i++) skipMember();
+
+        // allocate scope for members, sized for the fields and methods
+        c.members_field = WriteableScope.create(c, fieldCount + methodCount);
+
         readClassAttrs(c);
 
         if (c.permitted != null && !c.permitted.isEmpty()) {
@@ -26,17 +26,26 @@
 package javi.compiler.internal.com.sun.tools.javac.jvm;
 
 import java.io.*;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.ToIntFunction;
 
 import javi.api.tools.JavaFileManager;
 import javi.api.tools.FileObject;
 import javi.api.tools.JavaFileManager.Location;
 import javi.api.tools.JavaFileObject;
+import javi.api.tools.StandardJavaFileManager;
 
+import javi.compiler.internal.com.sun.tools.javac.api.MultiTaskListener;
 import javi.compiler.internal.com.sun.tools.javac.code.*;
 import javi.compiler.internal.com.sun.tools.javac.code.Attribute.RetentionPolicy;
 import javi.compiler.internal.com.sun.tools.javac.code.Directive.*;
@@ -89,6 +98,19 @@ public class ClassWriter extends ClassFile {
      */
     private boolean debugstackmap;
 
+    /** Switch: do not rewrite class files whose content has not changed.
+     */
+    private boolean skipUnchanged;
+
+    /** The number of class files not rewritten because their content had not changed.
+     */
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+
+    /** The names of the class files written by the writer threads of the
+     *  asynchronous output in verbose mode, not reported yet.
+     */
+    private final Queue<String> writtenFiles = new ConcurrentLinkedQueue<>();
+
     /** Preview language level.
      */
     private Preview preview;
@@ -144,6 +166,13 @@ public class ClassWriter extends ClassFile {
     /** Access to files. */
     private final JavaFileManager fileManager;
 
+    /** The asynchronous output stage, or null if class files are written synchronously. */
+    private final AsyncClassOutput asyncOutput;
+
+    /** The task listeners; class files are written synchronously while there are any,
+     *  as they may read a class file when told it was generated. */
+    private final MultiTaskListener taskListener;
+
     /** The tags and constants used in compressed stackmap. */
     static final int SAME_FRAME_SIZE = 64;
     static final int SAME_LOCALS_1_STACK_ITEM_EXTENDED = 247;
@@ -174,10 +203,13 @@ public class ClassWriter extends ClassFile {
         check = Check.instance(context);
         fileManager = context.get(JavaFileManager.class);
         poolWriter = Gen.instance(context).poolWriter;
+        asyncOutput = AsyncClassOutput.instance(context);
+        taskListener = MultiTaskListener.instance(context);
 
         verbose        = options.isSet(VERBOSE);
         genCrt         = options.isSet(XJCOV);
         debugstackmap = options.isSet("debug.stackmap");
+        skipUnchanged = options.isSet("skipUnchangedOutput");
 
         emitSourceFile = options.isUnset(G_CUSTOM) ||
                             options.isSet(G_CUSTOM, "source");
@@ -989,6 +1021,7 @@ public class ClassWriter extends ClassFile {
         if (m.code != null) {
             int alenIdx = writeAttr(names.Code);
             writeCode(m.code);
+            m.code.release();
             m.code = null; // to conserve space
             endAttr(alenIdx);
             acount++;
@@ -1036,14 +1069,11 @@ public class ClassWriter extends ClassFile {
         int acountIdx = beginAttrs();
         int acount = 0;
 
-        if (code.lineInfo.nonEmpty()) {
+        if (code.lineInfoCount > 0) {
             int alenIdx = writeAttr(names.LineNumberTable);
-            databuf.appendChar(code.lineInfo.length());
-            for (List<char[]> l = code.lineInfo.reverse();
-                 l.nonEmpty();
-                 l = l.tail)
-                for (int i = 0; i < l.head.length; i++)
-                    databuf.appendChar(l.head[i]);
+            databuf.appendChar(code.lineInfoCount);
+            for (int i = 0; i < 2 * code.lineInfoCount; i++)
+                databuf.appendChar(code.lineInfo[i]);
             endAttr(alenIdx);
             acount++;
         }
@@ -1503,9 +1533,40 @@ public class ClassWriter extends ClassFile {
                                                name,
                                                JavaFileObject.Kind.CLASS,
                                                c.sourcefile);
-        OutputStream out = outFile.openOutputStream();
+        boolean async = asyncOutput != null && taskListener.isEmpty();
+        if (async || skipUnchanged) {
+            byte[] bytes;
+            try {
+                bytes = writeClassBytes(c);
+            } catch (InvalidSignatureException ex) {
+                log.error(Errors.CannotGenerateClass(c, Fragments.IllegalSignature(c, ex.type())));
+                return null;
+            }
+            if (async) {
+                JavaFileObject f = outFile;
+                asyncOutput.write(c, () -> {
+                    // the log is only used on the compiler thread, see reportOutput
+                    if (writeFile(f, bytes) && verbose)
+                        writtenFiles.add(f.getName());
+                    return null;
+                });
+            } else if (writeFile(outFile, bytes) && verbose) {
+                log.printVerbose("wrote.file", outFile.getName());
+            }
+            return outFile;
+        }
+        Closeable out;
+        if (outFile instanceof PathFileObject) {
+            // write the class writer buffers straight to the file
+            out = ((PathFileObject) outFile).openWritableChannel();
+        } else {
+            out = outFile.openOutputStream();
+        }
         try {
-            writeClassFile(out, c);
+            if (out instanceof WritableByteChannel)
+                writeClassFile((WritableByteChannel) out, c);
+            else
+                writeClassFile((OutputStream) out, c);
             if (verbose)
                 log.printVerbose("wrote.file", outFile.getName());
             out.close();
@@ -1523,9 +1584,120 @@ public class ClassWriter extends ClassFile {
         return outFile; // may be null if write failed
     }
 
+    /** Write the bytes of a class file to `outFile', unless skipping unchanged
+     *  output and the file already has that content; return whether the file
+     *  was written. May be called from the writer threads of the asynchronous
+     *  output.
+     */
+    private boolean writeFile(JavaFileObject outFile, byte[] bytes) throws IOException {
+        if (skipUnchanged && hasContent(outFile, bytes)) {
+            unchangedCount.incrementAndGet();
+            return false;
+        }
+        boolean written = false;
+        try (OutputStream out = outFile.openOutputStream()) {
+            out.write(bytes);
+            written = true;
+        } finally {
+            if (!written) {
+                // if we are propagating an exception, delete the file
+                outFile.delete();
+            }
+        }
+        return true;
+    }
+
+    /** Does `file' exist with exactly the given content? When the file manager
+     *  can map the file to a path, the size is compared before any content is read.
+     */
+    private boolean hasContent(JavaFileObject file, byte[] bytes) {
+        try {
+            Path path = null;
+            if (fileManager instanceof StandardJavaFileManager) {
+                try {
+                    path = ((StandardJavaFileManager) fileManager).asPath(file);
+                } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+                    // not a path-based file object
+                }
+            }
+            byte[] existing;
+            if (path != null) {
+                if (!Files.isRegularFile(path) || Files.size(path) != bytes.length)
+                    return false;
+                existing = Files.readAllBytes(path);
+            } else {
+                try (InputStream in = file.openInputStream()) {
+                    existing = in.readAllBytes();
+                }
+            }
+            return Arrays.equals(existing, bytes);
+        } catch (IOException | UnsupportedOperationException | IllegalStateException ex) {
+            return false;
+        }
+    }
+
+    /** In verbose mode, report the class files written by the asynchronous
+     *  output since the last report, and how many class files were not
+     *  rewritten because their content had not changed, if there were any.
+     *  Called once the asynchronous output is flushed.
+     */
+    public void reportOutput() {
+        for (String name; (name = writtenFiles.poll()) != null; ) {
+            log.printVerbose("wrote.file", name);
+        }
+        int unchanged = unchangedCount.getAndSet(0);
+        if (verbose && unchanged > 0) {
+            log.printVerbose("unchanged.files", unchanged);
+        }
+    }
+
     /** Write class `c' to outstream `out'.
      */
     public void writeClassFile(OutputStream out, ClassSymbol c)
+        throws IOException, PoolOverflow, StringOverflow {
+        assembleClassFile(c);
+
+        out.write(poolbuf.elems, 0, poolbuf.length);
+
+        poolWriter.writePool(out);
+        poolWriter.reset(); // to save space
+
+        out.write(databuf.elems, 0, databuf.length);
+    }
+
+    /** Write class `c' into a new byte array.
+     */
+    public byte[] writeClassBytes(ClassSymbol c)
+        throws IOException, PoolOverflow, StringOverflow {
+        assembleClassFile(c);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(poolbuf.length + poolWriter.pool.poolbuf.length + 2 + databuf.length);
+        out.write(poolbuf.elems, 0, poolbuf.length);
+
+        poolWriter.writePool(out);
+        poolWriter.reset(); // to save space
+
+        out.write(databuf.elems, 0, databuf.length);
+        return out.toByteArray();
+    }
+
+    /** Write class `c' to channel `out', directly from the class writer buffers.
+     */
+    public void writeClassFile(WritableByteChannel out, ClassSymbol c)
+        throws IOException, PoolOverflow, StringOverflow {
+        assembleClassFile(c);
+
+        poolbuf.writeTo(out);
+
+        poolWriter.writePool(out);
+        poolWriter.reset(); // to save space
+
+        databuf.writeTo(out);
+    }
+
+    /** Assemble class `c' into the header buffer, the pool and the data buffer.
+     */
+    private void assembleClassFile(ClassSymbol c)
         throws IOException, PoolOverflow, StringOverflow {
         Assert.check((c.flags() & COMPOUND) == 0);
         databuf.reset();
@@ -1669,13 +1841,6 @@ public class ClassWriter extends ClassFile {
         }
 
         endAttrs(acountIdx, acount);
-
-        out.write(poolbuf.elems, 0, poolbuf.length);
-
-        poolWriter.writePool(out);
-        poolWriter.reset(); // to save space
-
-        out.write(databuf.elems, 0, databuf.length);
     }
 
      /**Allows subclasses to write additional class attributes
@@ -99,7 +99,7 @@ public class Code {
 
     /** The code buffer.
      */
-    public byte[] code = new byte[64];
+    public byte[] code;
 
     /** the current code pointer.
      */
@@ -129,10 +129,14 @@ public class Code {
      */
     ListBuffer<char[]> catchInfo = new ListBuffer<>();
 
-    /** A buffer for line number information. Each entry is a vector
-     *  of two unsigned shorts.
+    /** A buffer for line number information. Each entry is a pair
+     *  of unsigned shorts (start pc, line number), in pc order.
      */
-    List<char[]> lineInfo = List.nil(); // handled in stack fashion
+    char[] lineInfo;
+
+    /** The number of entries in the line number buffer.
+     */
+    int lineInfoCount = 0;
 
     /** The CharacterRangeTable
      */
@@ -193,6 +197,10 @@ public class Code {
 
     final MethodSymbol meth;
 
+    /** The pool the code and line number buffers are taken from.
+     */
+    final BufferPool buffers;
+
     private int letExprStackPos = 0;
 
     /** Construct a code object, given the settings of the fatcode,
@@ -207,7 +215,8 @@ public class Code {
                 CRTable crt,
                 Symtab syms,
                 Types types,
-                PoolWriter poolWriter) {
+                PoolWriter poolWriter,
+                BufferPool buffers) {
         this.meth = meth;
         this.fatcode = fatcode;
         this.lineMap = lineMap;
@@ -229,6 +238,21 @@ public class Code {
         }
         state = new State();
         lvar = new LocalVar[20];
+        this.buffers = buffers;
+        code = buffers.takeBytes(64);
+        lineInfo = buffers.takeChars(32);
+    }
+
+    /** Hand the code and line number buffers back to the pool they were
+     *  taken from. This code object can no longer be used afterwards.
+     */
+    public void release() {
+        if (code != null) {
+            buffers.release(code);
+            buffers.release(lineInfo);
+            code = null;
+            lineInfo = null;
+        }
     }
 
 
@@ -340,7 +364,9 @@ public class Code {
      */
     private  void emit1(int od) {
         if (!alive) return;
-        code = ArrayUtils.ensureCapacity(code, cp);
+        if (cp >= code.length) {
+            code = buffers.grow(code, cp);
+        }
         code[cp++] = (byte)od;
     }
 
@@ -1616,10 +1642,16 @@ public class Code {
      */
     public void addLineNumber(char startPc, char lineNumber) {
         if (lineDebugInfo) {
-            if (lineInfo.nonEmpty() && lineInfo.head[0] == startPc)
-                lineInfo = lineInfo.tail;
-            if (lineInfo.isEmpty() || lineInfo.head[1] != lineNumber)
-                lineInfo = lineInfo.prepend(new char[]{startPc, lineNumber});
+            if (lineInfoCount > 0 && lineInfo[2 * lineInfoCount - 2] == startPc)
+                lineInfoCount--;
+            if (lineInfoCount == 0 || lineInfo[2 * lineInfoCount - 1] != lineNumber) {
+                if (2 * lineInfoCount + 1 >= lineInfo.length) {
+                    lineInfo = buffers.grow(lineInfo, 2 * lineInfoCount + 1);
+                }
+                lineInfo[2 * lineInfoCount] = startPc;
+                lineInfo[2 * lineInfoCount + 1] = lineNumber;
+                lineInfoCount++;
+            }
         }
     }
 
@@ -2234,6 +2266,95 @@ public class Code {
         for (int i = nextreg; i < prevNextReg; i++) endScope(i);
     }
 
+/* **************************************************************************
+ * Buffer recycling
+ ****************************************************************************/
+
+    /** A pool of code and line number buffers, shared by all the methods
+     *  generated in one compilation. Buffers are kept by size class (their
+     *  length is always a power of two) and are handed back by {@link #release}
+     *  once the Code attribute of their method has been written, so that
+     *  later methods reuse them instead of allocating and growing new ones.
+     */
+    public static class BufferPool {
+
+        /** The number of size classes; the largest holds buffers of 2^(SIZE_CLASSES - 1). */
+        private static final int SIZE_CLASSES = 18;
+
+        /** The maximum number of idle buffers kept per size class. */
+        private static final int MAX_IDLE = 4;
+
+        private final byte[][][] idleBytes = new byte[SIZE_CLASSES][MAX_IDLE][];
+        private final int[] idleBytesCount = new int[SIZE_CLASSES];
+        private final char[][][] idleChars = new char[SIZE_CLASSES][MAX_IDLE][];
+        private final int[] idleCharsCount = new int[SIZE_CLASSES];
+
+        /** Return the size class of a buffer of given length, or -1 if it cannot be pooled. */
+        private static int sizeClass(int length) {
+            int sc = Integer.numberOfTrailingZeros(length);
+            return (length == 1 << sc && sc < SIZE_CLASSES) ? sc : -1;
+        }
+
+        /** Take a byte buffer of the given (power of two) length. Its contents are undefined. */
+        byte[] takeBytes(int length) {
+            int sc = sizeClass(length);
+            if (sc >= 0 && idleBytesCount[sc] > 0) {
+                byte[] buf = idleBytes[sc][--idleBytesCount[sc]];
+                idleBytes[sc][idleBytesCount[sc]] = null;
+                return buf;
+            }
+            return new byte[length];
+        }
+
+        /** Take a char buffer of the given (power of two) length. Its contents are undefined. */
+        char[] takeChars(int length) {
+            int sc = sizeClass(length);
+            if (sc >= 0 && idleCharsCount[sc] > 0) {
+                char[] buf = idleChars[sc][--idleCharsCount[sc]];
+                idleChars[sc][idleCharsCount[sc]] = null;
+                return buf;
+            }
+            return new char[length];
+        }
+
+        void release(byte[] buf) {
+            int sc = sizeClass(buf.length);
+            if (sc >= 0 && idleBytesCount[sc] < MAX_IDLE) {
+                idleBytes[sc][idleBytesCount[sc]++] = buf;
+            }
+        }
+
+        void release(char[] buf) {
+            int sc = sizeClass(buf.length);
+            if (sc >= 0 && idleCharsCount[sc] < MAX_IDLE) {
+                idleChars[sc][idleCharsCount[sc]++] = buf;
+            }
+        }
+
+        /** Replace a buffer by a larger one, so that maxIndex is a valid index;
+         *  the old buffer is handed back to the pool.
+         */
+        byte[] grow(byte[] buf, int maxIndex) {
+            int length = buf.length;
+            while (length < maxIndex + 1)
+                length = length * 2;
+            byte[] result = takeBytes(length);
+            System.arraycopy(buf, 0, result, 0, buf.length);
+            release(buf);
+            return result;
+        }
+
+        char[] grow(char[] buf, int maxIndex) {
+            int length = buf.length;
+            while (length < maxIndex + 1)
+                length = length * 2;
+            char[] result = takeChars(length);
+            System.arraycopy(buf, 0, result, 0, buf.length);
+            release(buf);
+            return result;
+        }
+    }
+
 /**************************************************************************
  * static tables
  *************************************************************************/
@@ -96,6 +96,16 @@ public class Gen extends JCTree.Visitor {
      */
     final PoolWriter poolWriter;
 
+    /** Recycled code buffers, shared by all methods generated by this Gen.
+     */
+    final Code.BufferPool codeBuffers = new Code.BufferPool();
+
+    /** Switch: should method bodies be released once their code has been
+     *  generated? Set by the compiler when nothing may look at the trees
+     *  after code generation.
+     */
+    public boolean releaseMethodBodies;
+
     protected Gen(Context context) {
         context.put(genKey, this);
 
@@ -1026,6 +1036,10 @@ public class Gen extends JCTree.Visitor {
         private int initCode(JCMethodDecl tree, Env<GenContext> env, boolean fatcode) {
             MethodSymbol meth = tree.sym;
 
+            // Hand back the buffers of a previous attempt (see fatcode).
+            if (meth.code != null)
+                meth.code.release();
+
             // Create a new code structure.
             meth.code = code = new Code(meth,
                                         fatcode,
@@ -1037,7 +1051,8 @@ public class Gen extends JCTree.Visitor {
                                                : null,
                                         syms,
                                         types,
-                                        poolWriter);
+                                        poolWriter,
+                                        codeBuffers);
             items = new Items(poolWriter, code, syms, types);
             if (code.debugCode) {
                 System.err.println(meth + " for body " + tree);
@@ -2418,6 +2433,14 @@ public class Gen extends JCTree.Visitor {
                         ((JCMethodDecl) l.head).sym.code = null;
                 }
             }
+            if (releaseMethodBodies) {
+                // trees such as method declarations may still be reachable
+                // from diagnostics and position tables; drop their bodies
+                for (List<JCTree> l = cdef.defs; l.nonEmpty(); l = l.tail) {
+                    if (l.head.hasTag(METHODDEF))
+                        ((JCMethodDecl) l.head).body = null;
+                }
+            }
             cdef.defs = List.nil(); // discard trees
             return nerrs == 0;
         } finally {
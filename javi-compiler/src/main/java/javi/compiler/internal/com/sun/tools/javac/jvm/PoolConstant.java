@@ -206,9 +206,13 @@ public interface PoolConstant {
         final Name name;
         final Type type;
 
-        NameAndType(Name name, Type type) {
+        /** The key for the descriptor type, as this constant is its own pool key. */
+        final UniqueType uniqueType;
+
+        NameAndType(Name name, Type type, Types types) {
             this.name = name;
             this.type = type;
+            this.uniqueType = new UniqueType(type, types);
         }
 
         @Override
@@ -217,8 +221,19 @@ public interface PoolConstant {
         }
 
         @Override
-        public Object poolKey(Types types) {
-            return new Pair<>(name, new UniqueType(type, types));
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (!(obj instanceof NameAndType)) {
+                return false;
+            }
+            NameAndType that = (NameAndType)obj;
+            return name == that.name && uniqueType.equals(that.uniqueType);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + uniqueType.hashCode();
         }
     }
 }
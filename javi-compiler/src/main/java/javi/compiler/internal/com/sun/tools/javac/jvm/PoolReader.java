@@ -215,7 +215,7 @@ public class PoolReader {
             case CONSTANT_NameandType: {
                 Name name = getName(poolbuf.getChar(offset));
                 Type type = getType(poolbuf.getChar(offset + 2));
-                return new NameAndType(name, type);
+                return new NameAndType(name, type, reader.types);
             }
             case CONSTANT_Integer:
                 return poolbuf.getInt(offset);
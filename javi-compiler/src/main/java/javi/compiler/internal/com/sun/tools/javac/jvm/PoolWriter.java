@@ -48,8 +48,9 @@ import javi.compiler.internal.com.sun.tools.javac.util.Names;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayDeque;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -200,7 +201,7 @@ public class PoolWriter {
      * Puts a name and type pair into the pool and returns its index.
      */
     int putNameAndType(Symbol s) {
-        return pool.writeIfNeeded(new NameAndType(s.name, descriptorType(s)));
+        return pool.writeIfNeeded(new NameAndType(s.name, descriptorType(s), types));
     }
 
     /**
@@ -255,6 +256,25 @@ public class PoolWriter {
      * Write pool contents into given byte buffer.
      */
     void writePool(OutputStream out) throws IOException, PoolOverflow {
+        int size = checkedSize();
+        out.write(size >> 8);
+        out.write(size);
+        out.write(pool.poolbuf.elems, 0, pool.poolbuf.length);
+    }
+
+    /**
+     * Write pool contents into given channel.
+     */
+    void writePool(WritableByteChannel out) throws IOException, PoolOverflow {
+        int size = checkedSize();
+        java.nio.ByteBuffer count = java.nio.ByteBuffer.allocate(2).putChar(0, (char)size);
+        while (count.hasRemaining()) {
+            out.write(count);
+        }
+        pool.poolbuf.writeTo(out);
+    }
+
+    private int checkedSize() throws PoolOverflow {
         if (pool.overflowString != null) {
             throw new StringOverflow(pool.overflowString);
         }
@@ -262,9 +282,7 @@ public class PoolWriter {
         if (size > MAX_ENTRIES) {
             throw new PoolOverflow();
         }
-        out.write(size >> 8);
-        out.write(size);
-        out.write(pool.poolbuf.elems, 0, pool.poolbuf.length);
+        return size;
     }
 
     /**
@@ -331,7 +349,7 @@ public class PoolWriter {
     class WriteablePoolHelper {
 
         /** Pool entries. */
-        private final Map<Object, Integer> keysToPos = new HashMap<>(64);
+        private final PoolIndexMap keysToPos = new PoolIndexMap();
 
         final ByteBuffer poolbuf = new ByteBuffer(POOL_BUF_SIZE);
 
@@ -343,8 +361,8 @@ public class PoolWriter {
 
         private <P extends PoolConstant> int writeIfNeeded(P p) {
             Object key = p.poolKey(types);
-            Integer index = keysToPos.get(key);
-            if (index == null) {
+            int index = keysToPos.get(key);
+            if (index == -1) {
                 keysToPos.put(key, index = currentIndex++);
                 boolean first = todo.isEmpty();
                 todo.addLast(p);
@@ -480,6 +498,87 @@ public class PoolWriter {
         }
     }
 
+    /**
+     * An open-addressing map from pool keys to pool indices. Unlike a {@code HashMap<Object, Integer>}
+     * this neither boxes indices nor allocates an entry per key; clearing it keeps the backing
+     * arrays, so that the same table is reused for every class written by this pool writer.
+     * Keys are compared using {@code equals}, as pool keys such as {@code UniqueType} rely on it.
+     */
+    static class PoolIndexMap {
+
+        private static final int INITIAL_SIZE = 0x100;
+
+        /** Tables larger than this are dropped on clear, rather than kept around after a huge class. */
+        private static final int MAX_RETAINED_SIZE = 0x10000;
+
+        private Object[] keys = new Object[INITIAL_SIZE];
+        private int[] values = new int[INITIAL_SIZE];
+        private int size;
+
+        private static int hash(Object key) {
+            int h = key.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * Returns the index associated with the given key, or -1 if there is none.
+         */
+        int get(Object key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask ; ; i = (i + 1) & mask) {
+                Object k = keys[i];
+                if (k == null) {
+                    return -1;
+                } else if (k == key || k.equals(key)) {
+                    return values[i];
+                }
+            }
+        }
+
+        /**
+         * Associates the given key (not already in this map) with the given index.
+         */
+        void put(Object key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            insert(keys, values, key, value);
+            size++;
+        }
+
+        private static void insert(Object[] keys, int[] values, Object key, int value) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void grow() {
+            Object[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new Object[oldKeys.length << 1];
+            values = new int[oldKeys.length << 1];
+            for (int i = 0 ; i < oldKeys.length ; i++) {
+                if (oldKeys[i] != null) {
+                    insert(keys, values, oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        void clear() {
+            if (keys.length > MAX_RETAINED_SIZE) {
+                keys = new Object[INITIAL_SIZE];
+                values = new int[INITIAL_SIZE];
+            } else if (size > 0) {
+                Arrays.fill(keys, null);
+            }
+            size = 0;
+        }
+    }
+
     int size() {
         return pool.currentIndex;
     }
@@ -26,9 +26,12 @@
 package javi.compiler.internal.com.sun.tools.javac.launcher;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,17 +49,28 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.security.CodeSigner;
 import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.ProtectionDomain;
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
@@ -364,6 +378,24 @@ public class Main {
     private String compile(Path file, List<String> javacOpts, Context context) throws Fault {
         JavaFileObject fo = readFile(file);
 
+        CompilationCache cache = CompilationCache.create();
+        String cacheKey = null;
+        if (cache != null) {
+            String source;
+            try {
+                source = fo.getCharContent(true).toString();
+            } catch (IOException e) {
+                throw new Fault(Errors.CantReadFile(file, e));
+            }
+            cacheKey = cache.key(source, javacOpts);
+        }
+        if (cacheKey != null) {
+            String mainClassName = cache.load(cacheKey, context.inMemoryClasses);
+            if (mainClassName != null) {
+                return mainClassName;
+            }
+        }
+
         JavacTool javaCompiler = JavacTool.create();
         StandardJavaFileManager stdFileMgr = javaCompiler.getStandardFileManager(null, null, null);
         try {
@@ -382,6 +414,9 @@ public class Main {
             throw new Fault(Errors.NoClass);
         }
         String mainClassName = l.mainClass.getQualifiedName().toString();
+        if (cacheKey != null) {
+            cache.store(cacheKey, mainClassName, context.inMemoryClasses);
+        }
         return mainClassName;
     }
 
@@ -496,6 +531,240 @@ public class Main {
         }
     }
 
+    /**
+     * A persistent cache of compiled source files, enabled with the system property
+     * {@code javi.launcher.cache}. Its value is the cache directory; if it is empty or
+     * {@code true}, a {@code javi/launcher} directory in the user cache directory
+     * ({@code $XDG_CACHE_HOME}, or {@code ~/.cache}) is used.
+     *
+     * <p>Entries are keyed by a digest of the source text, the {@code javac} options,
+     * and the versions of the compiler and of the runtime. On a hit, the class files
+     * and the name of the main class are read from the cache, and the source file is
+     * not compiled. The content of the class path is not part of the key, so the cache
+     * should not be used for programs compiled against libraries that change.
+     *
+     * <p>Each hit renews the modification time of its entry. When an entry is stored,
+     * entries not used for {@link #MAX_AGE} are removed, and then the least recently
+     * used ones beyond {@link #MAX_ENTRIES}.
+     *
+     * <p>The cache is best-effort: problems reading or writing it are ignored, and the
+     * source file is then compiled as usual.
+     */
+    private static class CompilationCache {
+        private static final int MAGIC = 0x4A564C43; // "JVLC"
+
+        /** The number of entries kept. */
+        private static final int MAX_ENTRIES = 200;
+
+        /** The time an entry is kept without being used. */
+        private static final Duration MAX_AGE = Duration.ofDays(30);
+
+        /** The time after which a temporary file is considered left behind by a failed launch. */
+        private static final Duration MAX_TEMP_AGE = Duration.ofHours(1);
+
+        private final Path dir;
+
+        private CompilationCache(Path dir) {
+            this.dir = dir;
+        }
+
+        /**
+         * Returns the cache to use, or {@code null} if the cache is not enabled.
+         */
+        static CompilationCache create() {
+            String value = System.getProperty("javi.launcher.cache");
+            if (value == null) {
+                return null;
+            }
+            try {
+                Path dir;
+                if (value.isEmpty() || value.equals("true")) {
+                    String cacheHome = System.getenv("XDG_CACHE_HOME");
+                    dir = (cacheHome != null && !cacheHome.isEmpty())
+                            ? Paths.get(cacheHome)
+                            : Paths.get(System.getProperty("user.home"), ".cache");
+                    dir = dir.resolve("javi").resolve("launcher");
+                } else {
+                    dir = Paths.get(value);
+                }
+                return new CompilationCache(dir);
+            } catch (InvalidPathException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns the key of the entry for a source text compiled with the given options,
+         * or {@code null} if the cache cannot be used.
+         */
+        String key(String source, List<String> javacOpts) {
+            MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                return null;
+            }
+            update(md, compilerVersion());
+            update(md, System.getProperty("java.vm.version"));
+            for (String opt : javacOpts) {
+                update(md, opt);
+            }
+            update(md, source);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : md.digest()) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        }
+
+        private static void update(MessageDigest md, String s) {
+            md.update(String.valueOf(s).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+
+        /**
+         * Returns a string identifying the compiler: its implementation version,
+         * and the location and modification time of the code it was loaded from.
+         */
+        private static String compilerVersion() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(Main.class.getPackage().getImplementationVersion());
+            CodeSource cs = Main.class.getProtectionDomain().getCodeSource();
+            if (cs != null && cs.getLocation() != null) {
+                sb.append(' ').append(cs.getLocation());
+                try {
+                    Path p = Paths.get(cs.getLocation().toURI());
+                    sb.append(' ').append(Files.getLastModifiedTime(p).toMillis());
+                } catch (Exception e) {
+                    // use the location only
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Reads the classes cached for a key into a map, and returns the name of the
+         * main class, or returns {@code null} if there is no usable entry.
+         */
+        String load(String key, Map<String, byte[]> classes) {
+            Path entry = dir.resolve(key);
+            if (!Files.isRegularFile(entry)) {
+                return null;
+            }
+            String mainClassName;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+                if (in.readInt() != MAGIC) {
+                    return null;
+                }
+                mainClassName = in.readUTF();
+                Map<String, byte[]> map = new HashMap<>();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    map.put(name, bytes);
+                }
+                classes.putAll(map);
+            } catch (IOException e) {
+                return null;
+            }
+            try {
+                Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+            } catch (IOException e) {
+                // ignore; the entry is only removed earlier
+            }
+            return mainClassName;
+        }
+
+        /**
+         * Writes the classes compiled for a key to the cache. The entry is written
+         * to a temporary file first, so that concurrent readers never see a partial entry.
+         */
+        void store(String key, String mainClassName, Map<String, byte[]> classes) {
+            Path tmp = null;
+            try {
+                Files.createDirectories(dir);
+                tmp = Files.createTempFile(dir, key, ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeUTF(mainClassName);
+                    out.writeInt(classes.size());
+                    for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                        out.writeUTF(e.getKey());
+                        out.writeInt(e.getValue().length);
+                        out.write(e.getValue());
+                    }
+                }
+                try {
+                    Files.move(tmp, dir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, dir.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+                }
+                tmp = null;
+            } catch (IOException e) {
+                // ignore; the cache is best-effort
+            } finally {
+                if (tmp != null) {
+                    try {
+                        Files.deleteIfExists(tmp);
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
+            }
+            prune();
+        }
+
+        /**
+         * Removes the entries not used for {@link #MAX_AGE}, then the least recently used
+         * entries beyond {@link #MAX_ENTRIES}, and old temporary files.
+         */
+        private void prune() {
+            Instant now = Instant.now();
+            List<Path> entries = new ArrayList<>();
+            Map<Path, FileTime> times = new HashMap<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    FileTime time;
+                    try {
+                        time = Files.getLastModifiedTime(p);
+                    } catch (IOException e) {
+                        continue; // removed by a concurrent launch
+                    }
+                    Duration age = Duration.between(time.toInstant(), now);
+                    String name = p.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        if (age.compareTo(MAX_TEMP_AGE) > 0) {
+                            delete(p);
+                        }
+                    } else if (age.compareTo(MAX_AGE) > 0) {
+                        delete(p);
+                    } else {
+                        entries.add(p);
+                        times.put(p, time);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                return;
+            }
+            if (entries.size() > MAX_ENTRIES) {
+                entries.sort(Comparator.comparing(times::get));
+                for (Path p : entries.subList(0, entries.size() - MAX_ENTRIES)) {
+                    delete(p);
+                }
+            }
+        }
+
+        private static void delete(Path p) {
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException e) {
+                // ignore; the cache is best-effort
+            }
+        }
+    }
+
     /**
      * An in-memory file manager.
      *
@@ -55,6 +55,7 @@ import javi.compiler.internal.com.sun.tools.doclint.DocLint;
 import javi.compiler.internal.com.sun.tools.javac.code.Lint.LintCategory;
 import javi.compiler.internal.com.sun.tools.javac.code.Source;
 import javi.compiler.internal.com.sun.tools.javac.file.BaseFileManager;
+import javi.compiler.internal.com.sun.tools.javac.file.JRTIndex;
 import javi.compiler.internal.com.sun.tools.javac.file.JavacFileManager;
 import javi.compiler.internal.com.sun.tools.javac.jvm.Profile;
 import javi.compiler.internal.com.sun.tools.javac.jvm.Target;
@@ -347,6 +348,8 @@ public class Arguments {
         if (!doProcessArgs(args, allowableOpts, helper, allowOperands, checkFileManager))
             return false;
 
+        prefetchPlatformPackages();
+
         if (!handleReleaseOptions(extra -> doProcessArgs(extra, allowableOpts, helper, allowOperands, checkFileManager)))
             return false;
 
@@ -355,6 +358,22 @@ public class Arguments {
         return true;
     }
 
+    /**
+     * Start reading the index of common platform packages in the background, if
+     * {@code -XDprefetchJRT} is given and the platform classes come from the jrt:
+     * file system of the running JDK. The packages may be given as a comma-separated
+     * list, as in {@code -XDprefetchJRT=java.lang,java.util}.
+     */
+    private void prefetchPlatformPackages() {
+        String packages = options.get("prefetchJRT");
+        if (packages == null || options.isSet(Option.RELEASE) || options.isSet(Option.SYSTEM)
+                || !JRTIndex.isAvailable())
+            return;
+        JRTIndex.getSharedInstance().prefetch(packages.equals("prefetchJRT")
+                ? JRTIndex.DEFAULT_PREFETCH_PACKAGES
+                : Arrays.asList(packages.split(",")));
+    }
+
     private boolean doProcessArgs(Iterable<String> args,
             Set<Option> allowableOpts, OptionHelper helper,
             boolean allowOperands, boolean checkFileManager) {
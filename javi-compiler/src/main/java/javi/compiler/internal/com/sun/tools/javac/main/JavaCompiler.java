@@ -45,10 +45,12 @@ import javi.compiler.internal.com.sun.tools.javac.code.Symbol.PackageSymbol;
 import javi.compiler.internal.com.sun.tools.javac.comp.*;
 import javi.compiler.internal.com.sun.tools.javac.comp.CompileStates.CompileState;
 import javi.compiler.internal.com.sun.tools.javac.file.JavacFileManager;
+import javi.compiler.internal.com.sun.tools.javac.jvm.AsyncClassOutput;
 import javi.compiler.internal.com.sun.tools.javac.jvm.ClassReader;
 import javi.compiler.internal.com.sun.tools.javac.jvm.ClassWriter;
 import javi.compiler.internal.com.sun.tools.javac.jvm.Gen;
 import javi.compiler.internal.com.sun.tools.javac.jvm.JNIWriter;
+import javi.compiler.internal.com.sun.tools.javac.parser.JavacParser;
 import javi.compiler.internal.com.sun.tools.javac.parser.Parser;
 import javi.compiler.internal.com.sun.tools.javac.parser.ParserFactory;
 import javi.compiler.internal.com.sun.tools.javac.platform.PlatformDescription;
@@ -245,6 +247,10 @@ public class JavaCompiler {
      */
     protected ClassWriter writer;
 
+    /** The asynchronous class file output, or null if class files are written synchronously.
+     */
+    protected AsyncClassOutput asyncOutput;
+
     /** The native header writer.
      */
     protected JNIWriter jniWriter;
@@ -379,6 +385,7 @@ public class JavaCompiler {
         reader = ClassReader.instance(context);
         make = TreeMaker.instance(context);
         writer = ClassWriter.instance(context);
+        asyncOutput = AsyncClassOutput.instance(context);
         jniWriter = JNIWriter.instance(context);
         enter = Enter.instance(context);
         todo = Todo.instance(context);
@@ -397,6 +404,7 @@ public class JavaCompiler {
         source = Source.instance(context);
         preview = Preview.instance(context);
         attr = Attr.instance(context);
+        attr.completeBodies = this::completeSkeleton;
         analyzer = Analyzer.instance(context);
         chk = Check.instance(context);
         gen = Gen.instance(context);
@@ -453,7 +461,7 @@ public class JavaCompiler {
             ? CompileState.valueOf(options.get("should-stop.ifNoError"))
             : CompileState.GENERATE;
 
-        if (options.isUnset("diags.legacy"))
+        if (options.isUnset("diags.legacy") && options.isUnset("jsonDiagnostics"))
             log.setDiagnosticFormatter(RichDiagnosticFormatter.instance(context));
 
         PlatformDescription platformProvider = context.get(PlatformDescription.class);
@@ -608,6 +616,16 @@ public class JavaCompiler {
      *  @param content      The characters to be parsed.
      */
     protected JCCompilationUnit parse(JavaFileObject filename, CharSequence content) {
+        return parse(filename, content, false);
+    }
+
+    /** Parse contents of input stream, optionally skipping the bodies of
+     *  methods and initializers.
+     *  @param filename     The name of the file from which input stream comes.
+     *  @param content      The characters to be parsed.
+     *  @param skeleton     Whether to skip bodies; see {@link #skeletonImplicitSources}.
+     */
+    private JCCompilationUnit parse(JavaFileObject filename, CharSequence content, boolean skeleton) {
         long msec = now();
         JCCompilationUnit tree = make.TopLevel(List.nil());
         if (content != null) {
@@ -620,9 +638,18 @@ public class JavaCompiler {
                 keepComments = true;
                 genEndPos = true;
             }
-            Parser parser = parserFactory.newParser(content, keepComments(), genEndPos,
-                                lineDebugInfo, filename.isNameCompatible("module-info", Kind.SOURCE));
-            tree = parser.parseCompilationUnit();
+            if (skeleton) {
+                JavacParser parser = parserFactory.newSkeletonParser(content, keepComments(), genEndPos, lineDebugInfo);
+                tree = parser.parseCompilationUnit();
+                List<JCBlock> skipped = parser.getSkippedBlocks();
+                if (skipped.nonEmpty()) {
+                    skeletons.put(tree, new Skeleton(skipped, genEndPos));
+                }
+            } else {
+                Parser parser = parserFactory.newParser(content, keepComments(), genEndPos,
+                                    lineDebugInfo, filename.isNameCompatible("module-info", Kind.SOURCE));
+                tree = parser.parseCompilationUnit();
+            }
             if (verbose) {
                 log.printVerbose("parsing.done", Long.toString(elapsed(msec)));
             }
@@ -643,6 +670,96 @@ public class JavaCompiler {
             return keepComments || sourceOutput;
         }
 
+    /** Whether source files read to complete classes, and not listed on the
+     *  command line, are parsed without the bodies of their methods and
+     *  initializers. Only their signatures are needed when -implicit:none
+     *  keeps their classes out of flow analysis and code generation; set
+     *  by {@link #compile} when that is the case and -XDskipImplicitBodies
+     *  is given. The bodies are skipped by matching braces, so syntax errors
+     *  in them are not reported.
+     */
+    protected boolean skeletonImplicitSources = false;
+
+    /** The compilation units parsed without bodies. */
+    protected final Map<JCCompilationUnit, Skeleton> skeletons = new LinkedHashMap<>();
+
+    /** The blocks left in place of the bodies of a compilation unit parsed
+     *  without them, and whether its parse kept end positions; its doc
+     *  comments are kept if the unit has a table of them.
+     */
+    protected static class Skeleton {
+        final List<JCBlock> skipped;
+        final boolean endPos;
+
+        Skeleton(List<JCBlock> skipped, boolean endPos) {
+            this.skipped = skipped;
+            this.endPos = endPos;
+        }
+    }
+
+    /** Parse the files parsed without bodies again, and move the bodies into
+     *  the blocks left in their place, for when their classes are to be
+     *  attributed after all.
+     */
+    protected void completeSkeletons() {
+        for (JCCompilationUnit unit : new ArrayList<>(skeletons.keySet())) {
+            completeSkeleton(unit);
+        }
+    }
+
+    /** Complete the given compilation unit if it was parsed without bodies.
+     *  Besides the classes of implicit source files attributed because a task
+     *  listener was added, Attr attributes the superclasses and enclosing
+     *  classes of the classes it attributes; this is called for each of them.
+     */
+    protected void completeSkeleton(JCCompilationUnit unit) {
+        Skeleton skeleton = skeletons.isEmpty() ? null : skeletons.remove(unit);
+        if (skeleton != null) {
+            JavaFileObject filename = unit.sourcefile;
+            JavaFileObject prev = log.useSource(filename);
+            try {
+                //parse as the skeleton was, so that the bodies get the same positions and comments
+                JCCompilationUnit full = parserFactory.newParser(filename.getCharContent(false),
+                        unit.docComments != null, skeleton.endPos, lineDebugInfo).parseCompilationUnit();
+                Map<Integer, JCBlock> blocks = new HashMap<>();
+                new TreeScanner() {
+                    @Override
+                    public void visitBlock(JCBlock tree) {
+                        blocks.putIfAbsent(tree.pos, tree);
+                        super.visitBlock(tree);
+                    }
+                }.scan(full);
+                TreeScanner copyPositions = new TreeScanner() {
+                    @Override
+                    public void scan(JCTree tree) {
+                        if (tree != null) {
+                            int endPos = full.endPositions.getEndPos(tree);
+                            if (endPos != Position.NOPOS) {
+                                unit.endPositions.storeEnd(tree, endPos);
+                            }
+                            if (unit.docComments != null && full.docComments.hasComment(tree)) {
+                                unit.docComments.putComment(tree, full.docComments.getComment(tree));
+                            }
+                        }
+                        super.scan(tree);
+                    }
+                };
+                for (JCBlock skipped : skeleton.skipped) {
+                    JCBlock body = blocks.get(skipped.pos);
+                    if (body != null) {
+                        skipped.stats = body.stats;
+                        skipped.endpos = body.endpos;
+                        copyPositions.scan(body.stats);
+                    }
+                }
+            } catch (IOException ex) {
+                log.error(Errors.ErrorReadingFile(filename, JavacFileManager.getMessage(ex)));
+            } finally {
+                log.useSource(prev);
+            }
+        }
+    }
+
 
     /** Parse contents of file.
      *  @param filename     The name of the file to be parsed.
@@ -662,6 +779,8 @@ public class JavaCompiler {
             JCTree.JCCompilationUnit t = parse(filename, readSource(filename));
             if (t.endPositions != null)
                 log.setEndPosTable(filename, t.endPositions);
+            if (t.lineMap != null)
+                log.setLineMap(filename, t.lineMap);
             return t;
         } finally {
             log.useSource(prev);
@@ -752,6 +871,16 @@ public class JavaCompiler {
         return null;
     }
 
+    /** Wait until all class files generated so far have been written,
+     *  reporting any write failures.
+     */
+    public void flushOutput() {
+        if (asyncOutput != null)
+            asyncOutput.flush();
+        if (writer != null)
+            writer.reportOutput();
+    }
+
     /** Emit plain Java source for a class.
      *  @param env    The attribution environment of the outermost class
      *                containing this class.
@@ -799,7 +928,8 @@ public class JavaCompiler {
 
         if (tree == null) {
             try {
-                tree = parse(filename, filename.getCharContent(false));
+                tree = parse(filename, filename.getCharContent(false),
+                             skeletonImplicitSources && !inputFiles.contains(filename));
             } catch (IOException e) {
                 log.error(Errors.ErrorReadingFile(filename, JavacFileManager.getMessage(e)));
                 tree = make.TopLevel(List.<JCTree>nil());
@@ -902,6 +1032,11 @@ public class JavaCompiler {
         options.remove(XLINT_CUSTOM.primaryName + LintCategory.OPTIONS.option);
 
         start_msec = now();
+        ScopeStatistics scopeStatistics = options.isSet("scopeStatistics") ? ScopeStatistics.start() : null;
+
+        skeletonImplicitSources = options.isSet("skipImplicitBodies")
+                && taskListener.isEmpty()
+                && implicitSourcePolicy == ImplicitSourcePolicy.NONE;
 
         try {
             initProcessAnnotations(processors, sourceFileObjects, classnames);
@@ -930,7 +1065,17 @@ public class JavaCompiler {
             if (taskListener.isEmpty() &&
                     implicitSourcePolicy == ImplicitSourcePolicy.NONE) {
                 todo.retainFiles(inputFiles);
+            } else {
+                // a task listener was added since: implicit classes are attributed
+                completeSkeletons();
             }
+            skeletonImplicitSources = false;
+
+            // under BY_TODO, classes are generated one at a time, so method
+            // bodies can go as soon as their code exists, unless a listener
+            // may still want to see them; set for each compilation, as a
+            // pooled context keeps Gen from one to the next
+            gen.releaseMethodBodies = compilePolicy == CompilePolicy.BY_TODO && taskListener.isEmpty();
 
             if (!CompileState.ATTR.isAfter(shouldStopPolicyIfNoError)) {
                 switch (compilePolicy) {
@@ -971,7 +1116,12 @@ public class JavaCompiler {
                 elapsed_msec = elapsed(start_msec);
                 log.printVerbose("total", Long.toString(elapsed_msec));
             }
+            if (scopeStatistics != null) {
+                ScopeStatistics.stop(scopeStatistics);
+                log.printRawLines(WriterKind.NOTICE, scopeStatistics.toString());
+            }
 
+            flushOutput();
             reportDeferredDiagnostics();
 
             if (!log.hasDiagnosticListener()) {
@@ -983,6 +1133,7 @@ public class JavaCompiler {
             if (!taskListener.isEmpty()) {
                 taskListener.finished(new TaskEvent(TaskEvent.Kind.COMPILATION));
             }
+            skeletons.clear();
             close();
             if (procEnvImpl != null)
                 procEnvImpl.close();
@@ -1019,6 +1170,11 @@ public class JavaCompiler {
                 trees.append(parse(fileObject));
             }
         }
+        if (options.isSet("treeHistogram")) {
+            TreeHistogram histogram = new TreeHistogram();
+            histogram.add(trees.toList());
+            log.printRawLines(WriterKind.NOTICE, histogram.toString());
+        }
         return trees.toList();
     }
 
@@ -1776,6 +1932,9 @@ public class JavaCompiler {
         reader = null;
         make = null;
         writer = null;
+        if (asyncOutput != null)
+            asyncOutput.close();
+        asyncOutput = null;
         enter = null;
         if (todo != null)
             todo.clear();
@@ -91,7 +91,7 @@ public class Main {
      */
     boolean apiMode;
 
-    private static final String ENV_OPT_NAME = "JDK_JAVAC_OPTIONS";
+    public static final String ENV_OPT_NAME = "JDK_JAVAC_OPTIONS";
 
     /** Result codes.
      */
@@ -65,6 +65,37 @@ public class JavaTokenizer extends UnicodeReader {
      */
     private int NOT_FOUND = -1;
 
+    /**
+     * Classes of the ASCII characters following the first character of an
+     * identifier, for the fast path of scanIdent(): identifier characters are
+     * part of it, and the characters an identifier may ignore, as well as
+     * backslashes starting unicode escapes, need the general path.
+     */
+    private static final byte[] identChars = new byte[128];
+
+    /**
+     * Classes of the ASCII characters following the first digit of a decimal
+     * literal, for the fast path of scanNumber(): underscores, fractions,
+     * exponents, suffixes and backslashes need the general path.
+     */
+    private static final byte[] decimalChars = new byte[128];
+
+    static {
+        for (char ch = 0; ch < 128; ch++) {
+            if ('a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || '0' <= ch && ch <= '9' || ch == '$' || ch == '_') {
+                identChars[ch] = ASCII_PART;
+            } else if (ch <= '\u0008' || '\u000E' <= ch && ch <= '\u001B' || ch == '\u007F' || ch == '\\') {
+                identChars[ch] = ASCII_SLOW;
+            }
+
+            if ('0' <= ch && ch <= '9') {
+                decimalChars[ch] = ASCII_PART;
+            } else if ("_.eEfFdDlL\\".indexOf(ch) >= 0) {
+                decimalChars[ch] = ASCII_SLOW;
+            }
+        }
+    }
+
     /**
      * The source language setting. Copied from scanner factory.
      */
@@ -610,6 +641,19 @@ public class JavaTokenizer extends UnicodeReader {
      * @param radix  the radix of the number; one of 2, 8, 10, 16.
      */
     private void scanNumber(int pos, int radix) {
+        if (radix == 10) {
+            int start = position();
+            int end = skipAsciiRun(decimalChars);
+
+            if (end >= 0) {
+                // plain decimal int literal: copy its digits in one go
+                sb.append(buffer(), start, end - start);
+                this.radix = 10;
+                tk = TokenKind.INTLITERAL;
+                return;
+            }
+        }
+
         // for octal, allow base-10 digit in case it's a float literal
         this.radix = radix;
         int digitRadix = (radix == 8 ? 10 : radix);
@@ -662,6 +706,17 @@ public class JavaTokenizer extends UnicodeReader {
      * Read an identifier. (Spec. 3.8)
      */
     private void scanIdent() {
+        int start = position();
+        int end = skipAsciiRun(identChars);
+
+        if (end >= 0) {
+            // plain ASCII identifier: look it up in place
+            char[] buffer = buffer();
+            tk = tokens.lookupKind(buffer, start, end - start);
+            name = (tk.tag == Token.Tag.DEFAULT) ? null : names.fromChars(buffer, start, end - start);
+            return;
+        }
+
         putThenNext();
 
         do {
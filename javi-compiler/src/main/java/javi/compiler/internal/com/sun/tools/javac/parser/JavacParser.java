@@ -130,6 +130,9 @@ public class JavacParser implements Parser {
     // implementations are possible but would cause much larger changes to
     // the parser.
 
+    /** The values of the literals parsed so far; see {@link #shared}. */
+    private final Map<Object, Object> literalValues = new HashMap<>();
+
     /** Type annotations that have already been read but have not yet been used. **/
     private List<JCAnnotation> typeAnnotationsPushedBack = List.nil();
 
@@ -211,6 +214,16 @@ public class JavacParser implements Parser {
      */
     boolean keepLineMap;
 
+    /** Switch: should we skip the bodies of methods and initializers,
+     *  leaving empty blocks in their place? Used for source files needed
+     *  only for the signatures they declare.
+     */
+    boolean skipBodies;
+
+    /** The blocks left in place of skipped bodies, in source order.
+     */
+    private ListBuffer<JCBlock> skippedBlocks;
+
     /** Switch: is "this" allowed as an identifier?
      * This is needed to parse receiver types.
      */
@@ -657,7 +670,7 @@ public class JavacParser implements Parser {
             try {
                 t = F.at(pos).Literal(
                     TypeTag.INT,
-                    Convert.string2int(strval(prefix), token.radix()));
+                    shared(Convert.string2int(strval(prefix), token.radix())));
             } catch (NumberFormatException ex) {
                 log.error(DiagnosticFlag.SYNTAX, token.pos, Errors.IntNumberTooLarge(strval(prefix)));
             }
@@ -666,7 +679,7 @@ public class JavacParser implements Parser {
             try {
                 t = F.at(pos).Literal(
                     TypeTag.LONG,
-                    Long.valueOf(Convert.string2long(strval(prefix), token.radix())));
+                    shared(Long.valueOf(Convert.string2long(strval(prefix), token.radix()))));
             } catch (NumberFormatException ex) {
                 log.error(DiagnosticFlag.SYNTAX, token.pos, Errors.IntNumberTooLarge(strval(prefix)));
             }
@@ -687,7 +700,7 @@ public class JavacParser implements Parser {
             else if (n.floatValue() == Float.POSITIVE_INFINITY)
                 log.error(DiagnosticFlag.SYNTAX, token.pos, Errors.FpNumberTooLarge);
             else
-                t = F.at(pos).Literal(TypeTag.FLOAT, n);
+                t = F.at(pos).Literal(TypeTag.FLOAT, shared(n));
             break;
         }
         case DOUBLELITERAL: {
@@ -706,7 +719,7 @@ public class JavacParser implements Parser {
             else if (n.doubleValue() == Double.POSITIVE_INFINITY)
                 log.error(DiagnosticFlag.SYNTAX, token.pos, Errors.FpNumberTooLarge);
             else
-                t = F.at(pos).Literal(TypeTag.DOUBLE, n);
+                t = F.at(pos).Literal(TypeTag.DOUBLE, shared(n));
             break;
         }
         case CHARLITERAL:
@@ -717,7 +730,7 @@ public class JavacParser implements Parser {
         case STRINGLITERAL:
             t = F.at(pos).Literal(
                 TypeTag.CLASS,
-                token.stringVal());
+                shared(token.stringVal()));
             break;
         case TRUE: case FALSE:
             t = F.at(pos).Literal(
@@ -738,6 +751,7 @@ public class JavacParser implements Parser {
         nextToken();
         return t;
     }
+
     //where
         boolean isZero(String s) {
             char[] cs = s.toCharArray();
@@ -752,6 +766,16 @@ public class JavacParser implements Parser {
             return prefix.isEmpty() ? s : prefix + s;
         }
 
+        /** Return the value equal to `value' already used by a literal of this
+         *  compilation unit, so that repeated literals share a single value
+         *  object, or `value' itself if it is the first such literal.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T shared(T value) {
+            Object prev = literalValues.putIfAbsent(value, value);
+            return prev != null ? (T) prev : value;
+        }
+
     /** terms can be either expressions or types.
      */
     public JCExpression parseExpression() {
@@ -2518,6 +2542,36 @@ public class JavacParser implements Parser {
         return block(token.pos, 0);
     }
 
+    /** Skip a block, leaving an empty one in its place.
+     *  The tokens are counted to the matching closing brace, without building trees.
+     */
+    JCBlock skippedBlock(int pos, long flags) {
+        accept(LBRACE);
+        int depth = 1;
+        while (token.kind != EOF) {
+            if (token.kind == LBRACE) {
+                depth++;
+            } else if (token.kind == RBRACE && --depth == 0) {
+                break;
+            }
+            nextToken();
+        }
+        JCBlock t = F.at(pos).Block(flags, List.nil());
+        t.endpos = token.pos;
+        accept(RBRACE);
+        if (skippedBlocks == null) {
+            skippedBlocks = new ListBuffer<>();
+        }
+        skippedBlocks.append(t);
+        return toP(t);
+    }
+
+    /** The blocks left in place of the bodies skipped so far.
+     */
+    public List<JCBlock> getSkippedBlocks() {
+        return (skippedBlocks == null) ? List.nil() : skippedBlocks.toList();
+    }
+
     /** BlockStatements = { BlockStatement }
      *  BlockStatement  = LocalVariableDeclarationStatement
      *                  | ClassOrInterfaceOrEnumDeclaration
@@ -4156,7 +4210,7 @@ public class JavacParser implements Parser {
                 } else if (isRecord && (mods.flags & Flags.STATIC) == 0) {
                     log.error(DiagnosticFlag.SYNTAX, token.pos, Errors.InstanceInitializerNotAllowedInRecords);
                 }
-                return List.of(block(pos, mods.flags));
+                return List.of(skipBodies ? skippedBlock(pos, mods.flags) : block(pos, mods.flags));
             } else {
                 pos = token.pos;
                 List<JCTypeParameter> typarams = typeParametersOpt();
@@ -4356,7 +4410,7 @@ public class JavacParser implements Parser {
             JCBlock body = null;
             JCExpression defaultValue;
             if (token.kind == LBRACE) {
-                body = block();
+                body = skipBodies ? skippedBlock(token.pos, 0) : block();
                 defaultValue = null;
             } else {
                 if (token.kind == DEFAULT) {
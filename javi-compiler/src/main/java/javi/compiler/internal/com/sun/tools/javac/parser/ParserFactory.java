@@ -92,4 +92,15 @@ public class ParserFactory {
         Lexer lexer = scannerFactory.newScanner(input, keepDocComments);
         return new JavacParser(this, lexer, keepDocComments, keepLineMap, keepEndPos, parseModuleInfo);
     }
+
+    /**
+     * Create a parser skipping the bodies of methods and initializers, for a
+     * source file needed only for the signatures it declares. The blocks left
+     * in their place are returned by {@link JavacParser#getSkippedBlocks()}.
+     */
+    public JavacParser newSkeletonParser(CharSequence input, boolean keepDocComments, boolean keepEndPos, boolean keepLineMap) {
+        JavacParser parser = newParser(input, keepDocComments, keepEndPos, keepLineMap, false);
+        parser.skipBodies = true;
+        return parser;
+    }
 }
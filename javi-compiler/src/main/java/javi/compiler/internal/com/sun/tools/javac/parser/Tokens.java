@@ -25,9 +25,8 @@
 
 package javi.compiler.internal.com.sun.tools.javac.parser;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Locale;
-import java.util.Map;
 
 import javi.compiler.internal.com.sun.tools.javac.api.Formattable;
 import javi.compiler.internal.com.sun.tools.javac.api.Messages;
@@ -47,9 +46,78 @@ public class Tokens {
     private final Names names;
 
     /**
-     * Keyword array. Maps name indices to Token.
+     * The names of the named tokens (keywords and operators) in the slots of
+     * a perfect hash of their characters: no two names share a slot, so a
+     * lookup hashes the characters once and compares them with one name,
+     * without building a string. See {@link #slot(int)}.
      */
-    private Map<String, TokenKind> keywords = new HashMap<>();
+    private static final char[][] slotNames;
+
+    /** The token kinds of the names in {@link #slotNames}. */
+    private static final TokenKind[] slotKinds;
+
+    /** The odd multiplier of the perfect hash. */
+    private static final int slotMultiplier;
+
+    /** The shift of the perfect hash, leaving the bits of a slot index. */
+    private static final int slotShift;
+
+    static {
+        ListBuffer<TokenKind> named = new ListBuffer<>();
+        for (TokenKind t : TokenKind.values()) {
+            if (t.name != null) {
+                named.add(t);
+            }
+        }
+        TokenKind[] kinds = named.toArray(new TokenKind[named.size()]);
+        int[] hashes = new int[kinds.length];
+        for (int i = 0; i < hashes.length; i++) {
+            String name = kinds[i].name;
+            int h = 0;
+            for (int j = 0; j < name.length(); j++) {
+                h = 31 * h + name.charAt(j);
+            }
+            hashes[i] = h;
+        }
+        // look for a multiplier mapping the names to distinct slots,
+        // doubling the table if none of the candidates does
+        int bits = 32 - Integer.numberOfLeadingZeros(2 * hashes.length - 1);
+        int multiplier = 0;
+        search: while (true) {
+            boolean[] used = new boolean[1 << bits];
+            for (int candidate = 0x9E3779B1; candidate != 0x9E3779B1 + 2 * 4096; candidate += 2) {
+                Arrays.fill(used, false);
+                boolean collision = false;
+                for (int h : hashes) {
+                    int slot = (h * candidate) >>> (32 - bits);
+                    if (used[slot]) {
+                        collision = true;
+                        break;
+                    }
+                    used[slot] = true;
+                }
+                if (!collision) {
+                    multiplier = candidate;
+                    break search;
+                }
+            }
+            bits++;
+        }
+        slotMultiplier = multiplier;
+        slotShift = 32 - bits;
+        slotNames = new char[1 << bits][];
+        slotKinds = new TokenKind[1 << bits];
+        for (int i = 0; i < hashes.length; i++) {
+            int slot = slot(hashes[i]);
+            slotNames[slot] = kinds[i].name.toCharArray();
+            slotKinds[slot] = kinds[i];
+        }
+    }
+
+    /** The slot of a name with the given hash, {@code 31 * h + c} over its characters. */
+    private static int slot(int hash) {
+        return (hash * slotMultiplier) >>> slotShift;
+    }
 
     public static final Context.Key<Tokens> tokensKey = new Context.Key<>();
 
@@ -66,7 +134,6 @@ public class Tokens {
         for (TokenKind t : TokenKind.values()) {
             if (t.name != null) {
                 names.fromString(t.name);
-                keywords.put(t.name, t);
             }
         }
     }
@@ -77,13 +144,60 @@ public class Tokens {
      * identifier token is returned.
      */
     TokenKind lookupKind(Name name) {
-        TokenKind t = keywords.get(name.toString());
-        return (t != null) ? t : TokenKind.IDENTIFIER;
+        // token names are ASCII, so their UTF-8 bytes are their characters
+        byte[] bytes = name.getByteArray();
+        int offset = name.getByteOffset();
+        int length = name.getByteLength();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + bytes[offset + i];
+        }
+        int slot = slot(h);
+        char[] candidate = slotNames[slot];
+        if (candidate == null || candidate.length != length)
+            return TokenKind.IDENTIFIER;
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != bytes[offset + i])
+                return TokenKind.IDENTIFIER;
+        }
+        return slotKinds[slot];
     }
 
     TokenKind lookupKind(String name) {
-        TokenKind t = keywords.get(name);
-        return (t != null) ? t : TokenKind.IDENTIFIER;
+        int length = name.length();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        int slot = slot(h);
+        char[] candidate = slotNames[slot];
+        if (candidate == null || candidate.length != length)
+            return TokenKind.IDENTIFIER;
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != name.charAt(i))
+                return TokenKind.IDENTIFIER;
+        }
+        return slotKinds[slot];
+    }
+
+    /**
+     * Look up the characters {@code cs[start .. start + length)} as a token
+     * name, before they are entered in the name table.
+     */
+    TokenKind lookupKind(char[] cs, int start, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + cs[start + i];
+        }
+        int slot = slot(h);
+        char[] candidate = slotNames[slot];
+        if (candidate == null || candidate.length != length)
+            return TokenKind.IDENTIFIER;
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != cs[start + i])
+                return TokenKind.IDENTIFIER;
+        }
+        return slotKinds[slot];
     }
 
     /**
@@ -530,6 +530,77 @@ public class UnicodeReader {
         return result;
     }
 
+    /**
+     * Class of an ASCII character in the tables given to {@link #skipAsciiRun}:
+     * the character ends the run.
+     */
+    protected static final byte ASCII_END = 0;
+
+    /**
+     * Class of an ASCII character in the tables given to {@link #skipAsciiRun}:
+     * the character is part of the run.
+     */
+    protected static final byte ASCII_PART = 1;
+
+    /**
+     * Class of an ASCII character in the tables given to {@link #skipAsciiRun}:
+     * the character may continue the token, and the run has to be scanned
+     * character by character.
+     */
+    protected static final byte ASCII_SLOW = 2;
+
+    /**
+     * Skip a run of ASCII characters read straight from the buffer, starting at
+     * the current character. The characters are classified by {@code classes},
+     * indexed by character. The run is only skipped if it is followed by the end
+     * of the buffer or by an {@link #ASCII_END} character; if it reaches an
+     * {@link #ASCII_SLOW} character, a non-ASCII character or the current
+     * character is a unicode escape, the reader is left where it was.
+     *
+     * @param classes  classes of the 128 ASCII characters.
+     *
+     * @return the position after the run, or -1 if the run was not skipped.
+     */
+    protected int skipAsciiRun(byte[] classes) {
+        if (width != 1) {
+            return -1;
+        }
+
+        int index = position;
+
+        while (index < length) {
+            char ch = buffer[index];
+
+            if (ch >= 0x80) {
+                return -1;
+            }
+
+            byte c = classes[ch];
+
+            if (c == ASCII_END) {
+                break;
+            } else if (c != ASCII_PART) {
+                return -1;
+            }
+
+            index++;
+        }
+
+        reset(index);
+
+        return index;
+    }
+
+    /**
+     * Returns the input buffer itself, to read the characters of a run skipped
+     * by {@link #skipAsciiRun} in place. The buffer must not be modified.
+     *
+     * @return the input buffer.
+     */
+    protected char[] buffer() {
+        return buffer;
+    }
+
     /**
      * Returns the input buffer. Unicode escape sequences are not translated.
      *
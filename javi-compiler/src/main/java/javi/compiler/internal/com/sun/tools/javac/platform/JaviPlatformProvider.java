@@ -0,0 +1,96 @@
+package javi.compiler.internal.com.sun.tools.javac.platform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javi.api.annotation.processing.Processor;
+import javi.api.tools.JavaFileManager;
+
+import javi.compiler.internal.com.sun.source.util.Plugin;
+import javi.compiler.internal.com.sun.tools.javac.code.Source;
+import javi.compiler.internal.com.sun.tools.javac.code.Source.Feature;
+
+/**
+ * The platform provider for {@code --release}, backed by the
+ * {@linkplain SignatureArchive signature archives} bundled with the compiler
+ * under {@code javi/compiler/platform/<release>.sig}. A release is supported
+ * if its archive is present; archives are built by the {@code platform-signatures}
+ * profile of the javi-compiler build.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class JaviPlatformProvider implements PlatformProvider {
+
+    @Override
+    public Iterable<String> getSupportedPlatformNames() {
+        List<String> names = new ArrayList<>();
+        for (Source source : Source.values()) {
+            if (Feature.MODULES.allowedInSource(source) && SignatureArchive.findArchive(source.name) != null) {
+                names.add(source.name);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public PlatformDescription getPlatform(String platformName, String options) throws PlatformNotSupported {
+        SignatureArchive archive;
+        try {
+            archive = SignatureArchive.instance(platformName);
+        } catch (IOException ex) {
+            archive = null;
+        }
+        if (archive == null)
+            throw new PlatformNotSupported();
+        return new PlatformDescriptionImpl(archive);
+    }
+
+    static class PlatformDescriptionImpl implements PlatformDescription {
+
+        private final SignatureArchive archive;
+
+        PlatformDescriptionImpl(SignatureArchive archive) {
+            this.archive = archive;
+        }
+
+        @Override
+        public JavaFileManager getFileManager() {
+            return new SignatureArchiveFileManager(archive);
+        }
+
+        @Override
+        public String getSourceVersion() {
+            return archive.getRelease();
+        }
+
+        @Override
+        public String getTargetVersion() {
+            return archive.getRelease();
+        }
+
+        @Override
+        public List<PluginInfo<Processor>> getAnnotationProcessors() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<PluginInfo<Plugin>> getPlugins() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getAdditionalOptions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void close() {
+            // the archive is shared by all compilations in the VM
+        }
+    }
+}
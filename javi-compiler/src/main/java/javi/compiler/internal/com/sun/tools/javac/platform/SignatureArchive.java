@@ -0,0 +1,298 @@
+package javi.compiler.internal.com.sun.tools.javac.platform;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javi.api.lang.model.element.Modifier;
+import javi.api.lang.model.element.NestingKind;
+import javi.api.tools.JavaFileObject;
+
+/**
+ * A signature archive: the class files of the modules of one Java SE release,
+ * reduced to what is needed to compile against them, in a single file with
+ * a pre-built index. Archives are created by {@link SignatureArchiveWriter}
+ * and used for {@code --release} through {@link JaviPlatformProvider}.
+ *
+ * <p>An archive starts with its index, followed by the class files:
+ * <pre>
+ *   int     magic              0x4A534947 ("JSIG")
+ *   short   version            1
+ *   utf     release            e.g. "11"
+ *   int     moduleCount
+ *   module  modules[moduleCount], sorted by name
+ *
+ *   module:  utf name, int packageCount, package packages[packageCount]
+ *   package: utf name, int classCount, class classes[classCount]
+ *   class:   utf name, int offset, int length
+ * </pre>
+ * Package names use dots, and {@code module-info} is a class of the
+ * unnamed package. Class names are binary names without the package,
+ * such as {@code Map$Entry}. Offsets are relative to the end of the index.
+ * Strings are written as by {@link java.io.DataOutput#writeUTF}.
+ *
+ * <p>The archive is mapped into memory when it is a file, and read once
+ * when it is inside a jar. Archives are shared by all compilations in the VM.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class SignatureArchive {
+
+    static final int MAGIC = 0x4A534947;
+    static final int VERSION = 1;
+
+    private static final Map<String, SignatureArchive> archives = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String release;
+    private final ByteBuffer data;
+
+    /** The modules, by name. */
+    private final Map<String, Module> modules = new LinkedHashMap<>();
+
+    /** Return the resource holding the archive for a release, or null if there is none. */
+    static URL findArchive(String release) {
+        return SignatureArchive.class.getResource("/javi/compiler/platform/" + release + ".sig");
+    }
+
+    /** Return the archive for a release, opening it if needed, or null if there is none. */
+    public static SignatureArchive instance(String release) throws IOException {
+        SignatureArchive archive = archives.get(release);
+        if (archive == null) {
+            URL url = findArchive(release);
+            if (url == null)
+                return null;
+            archive = new SignatureArchive(release + ".sig", read(url));
+            if (!archive.release.equals(release))
+                throw new IOException("archive " + url + " is for release " + archive.release);
+            SignatureArchive prev = archives.putIfAbsent(release, archive);
+            if (prev != null)
+                archive = prev;
+        }
+        return archive;
+    }
+
+    private static ByteBuffer read(URL url) throws IOException {
+        if (url.getProtocol().equals("file")) {
+            try (FileChannel ch = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            byte[] bytes = in.readAllBytes();
+            return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        }
+    }
+
+    SignatureArchive(String name, ByteBuffer buffer) throws IOException {
+        this.name = name;
+        DataInputStream in = new DataInputStream(new BufferInputStream(buffer.duplicate()));
+        if (in.readInt() != MAGIC || in.readShort() != VERSION)
+            throw new IOException(name + " is not a signature archive");
+        release = in.readUTF();
+        int moduleCount = in.readInt();
+        for (int m = 0; m < moduleCount; m++) {
+            Module module = new Module(in.readUTF());
+            int packageCount = in.readInt();
+            for (int p = 0; p < packageCount; p++) {
+                String packageName = in.readUTF();
+                int classCount = in.readInt();
+                Entry[] entries = new Entry[classCount];
+                for (int c = 0; c < classCount; c++) {
+                    entries[c] = new Entry(module, packageName, in.readUTF(), in.readInt(), in.readInt());
+                }
+                module.packages.put(packageName, entries);
+            }
+            modules.put(module.name, module);
+        }
+        int dataStart = buffer.capacity() - in.available();
+        data = buffer.duplicate().position(dataStart).slice();
+    }
+
+    public String getRelease() {
+        return release;
+    }
+
+    Collection<Module> getModules() {
+        return modules.values();
+    }
+
+    Module getModule(String moduleName) {
+        return modules.get(moduleName);
+    }
+
+    /** A module of the archive. */
+    class Module {
+        final String name;
+
+        /** The classes of each package, sorted by name. */
+        final Map<String, Entry[]> packages = new LinkedHashMap<>();
+
+        Module(String name) {
+            this.name = name;
+        }
+
+        Entry getEntry(String packageName, String className) {
+            Entry[] entries = packages.get(packageName);
+            if (entries == null)
+                return null;
+            int lo = 0, hi = entries.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = entries[mid].className.compareTo(className);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return entries[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    /** A class file in the archive. */
+    class Entry implements JavaFileObject {
+        final Module module;
+        final String packageName;
+        final String className;
+        final int offset;
+        final int length;
+
+        Entry(Module module, String packageName, String className, int offset, int length) {
+            this.module = module;
+            this.packageName = packageName;
+            this.className = className;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        String getBinaryName() {
+            return packageName.isEmpty() ? className : packageName + "." + className;
+        }
+
+        private String getPath() {
+            return module.name + "/" + getBinaryName().replace('.', '/') + ".class";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.CLASS;
+        }
+
+        @Override
+        public boolean isNameCompatible(String simpleName, Kind kind) {
+            return kind == Kind.CLASS && className.equals(simpleName);
+        }
+
+        @Override
+        public NestingKind getNestingKind() {
+            return null;
+        }
+
+        @Override
+        public Modifier getAccessLevel() {
+            return null;
+        }
+
+        @Override
+        public URI toUri() {
+            return URI.create("jsig:/" + release + "/" + getPath());
+        }
+
+        @Override
+        public String getName() {
+            return name + "(" + getPath() + ")";
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new BufferInputStream(data.duplicate().position(offset).limit(offset + length));
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Reader openReader(boolean ignoreEncodingErrors) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Writer openWriter() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getLastModified() {
+            return 0;
+        }
+
+        @Override
+        public boolean delete() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /** An input stream reading the remaining bytes of a buffer. */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buf.hasRemaining())
+                return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
+}
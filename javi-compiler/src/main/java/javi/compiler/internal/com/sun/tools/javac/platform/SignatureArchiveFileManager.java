@@ -0,0 +1,201 @@
+package javi.compiler.internal.com.sun.tools.javac.platform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import javi.api.tools.FileObject;
+import javi.api.tools.JavaFileManager;
+import javi.api.tools.JavaFileObject;
+import javi.api.tools.JavaFileObject.Kind;
+import javi.api.tools.StandardLocation;
+
+import javi.compiler.internal.com.sun.tools.javac.platform.SignatureArchive.Entry;
+
+/**
+ * A file manager providing the system modules of a {@link SignatureArchive}.
+ * It only knows the {@link StandardLocation#SYSTEM_MODULES} location; the
+ * compiler reaches it through a {@code DelegatingJavaFileManager}, which
+ * sends all other locations to the regular file manager.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class SignatureArchiveFileManager implements JavaFileManager {
+
+    private final SignatureArchive archive;
+
+    /** The locations of the modules, by name. */
+    private final Map<String, ModuleLocation> moduleLocations = new LinkedHashMap<>();
+
+    public SignatureArchiveFileManager(SignatureArchive archive) {
+        this.archive = archive;
+        for (SignatureArchive.Module m : archive.getModules()) {
+            moduleLocations.put(m.name, new ModuleLocation(m));
+        }
+    }
+
+    @Override
+    public ClassLoader getClassLoader(Location location) {
+        return null;
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName,
+                                         Set<Kind> kinds, boolean recurse) {
+        if (!(location instanceof ModuleLocation) || !kinds.contains(Kind.CLASS))
+            return Collections.emptyList();
+        SignatureArchive.Module module = ((ModuleLocation) location).module;
+        List<JavaFileObject> result = new ArrayList<>();
+        if (recurse) {
+            String prefix = packageName.isEmpty() ? "" : packageName + ".";
+            for (Map.Entry<String, Entry[]> e : module.packages.entrySet()) {
+                String p = e.getKey();
+                if (p.equals(packageName) || p.startsWith(prefix)) {
+                    Collections.addAll(result, e.getValue());
+                }
+            }
+        } else {
+            Entry[] entries = module.packages.get(packageName);
+            if (entries != null) {
+                Collections.addAll(result, entries);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        return (file instanceof Entry) ? ((Entry) file).getBinaryName() : null;
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        return a.equals(b);
+    }
+
+    @Override
+    public boolean handleOption(String current, Iterator<String> remaining) {
+        return false;
+    }
+
+    @Override
+    public int isSupportedOption(String option) {
+        return -1;
+    }
+
+    @Override
+    public boolean hasLocation(Location location) {
+        return location == StandardLocation.SYSTEM_MODULES || location instanceof ModuleLocation;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForInput(Location location, String className, Kind kind) {
+        if (!(location instanceof ModuleLocation) || kind != Kind.CLASS)
+            return null;
+        int sep = className.lastIndexOf('.');
+        String packageName = (sep == -1) ? "" : className.substring(0, sep);
+        return ((ModuleLocation) location).module.getEntry(packageName, className.substring(sep + 1));
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind,
+                                               FileObject sibling) {
+        throw new IllegalArgumentException(location.getName());
+    }
+
+    @Override
+    public FileObject getFileForInput(Location location, String packageName, String relativeName) {
+        return null;
+    }
+
+    @Override
+    public FileObject getFileForOutput(Location location, String packageName, String relativeName,
+                                       FileObject sibling) {
+        throw new IllegalArgumentException(location.getName());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public Location getLocationForModule(Location location, String moduleName) {
+        return (location == StandardLocation.SYSTEM_MODULES) ? moduleLocations.get(moduleName) : null;
+    }
+
+    @Override
+    public Location getLocationForModule(Location location, JavaFileObject fo) {
+        if (location == StandardLocation.SYSTEM_MODULES && fo instanceof Entry)
+            return moduleLocations.get(((Entry) fo).module.name);
+        return null;
+    }
+
+    @Override
+    public <S> ServiceLoader<S> getServiceLoader(Location location, Class<S> service) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String inferModuleName(Location location) {
+        return (location instanceof ModuleLocation) ? ((ModuleLocation) location).module.name : null;
+    }
+
+    @Override
+    public Iterable<Set<Location>> listLocationsForModules(Location location) {
+        if (location != StandardLocation.SYSTEM_MODULES)
+            return Collections.emptyList();
+        return Collections.singletonList(new LinkedHashSet<>(moduleLocations.values()));
+    }
+
+    @Override
+    public boolean contains(Location location, FileObject fo) {
+        if (!(fo instanceof Entry))
+            return false;
+        SignatureArchive.Module module = ((Entry) fo).module;
+        return location == StandardLocation.SYSTEM_MODULES
+                || location instanceof ModuleLocation && ((ModuleLocation) location).module == module;
+    }
+
+    @Override
+    public String toString() {
+        return "SignatureArchiveFileManager[" + archive.getRelease() + "]";
+    }
+
+    /** The location of a module of the archive. */
+    private static class ModuleLocation implements Location {
+        final SignatureArchive.Module module;
+
+        ModuleLocation(SignatureArchive.Module module) {
+            this.module = module;
+        }
+
+        @Override
+        public String getName() {
+            return "SYSTEM_MODULES[" + module.name + "]";
+        }
+
+        @Override
+        public boolean isOutputLocation() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
@@ -0,0 +1,619 @@
+package javi.compiler.internal.com.sun.tools.javac.platform;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.module.ModuleDescriptor;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Creates a {@linkplain SignatureArchive signature archive} from the run-time
+ * image of a JDK. Usage:
+ * <pre>
+ *   java -cp javi-compiler.jar javi.compiler.internal.com.sun.tools.javac.platform.SignatureArchiveWriter \
+ *       &lt;jdk home&gt; &lt;release&gt; &lt;archive file&gt;
+ * </pre>
+ * The archive holds the module descriptors of all modules of the image, the
+ * classes of the packages they export to all modules, and the classes these
+ * refer to in their API, transitively. Each class is reduced to a stub:
+ * method code, private fields and methods, local and anonymous classes, and
+ * attributes the compiler does not read are left out, and the constant pool
+ * is rebuilt with the remaining entries only.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class SignatureArchiveWriter {
+
+    public static void main(String... args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SignatureArchiveWriter <jdk home> <release> <archive file>");
+            System.exit(2);
+        }
+        Path jdkHome = Paths.get(args[0]);
+        try (FileSystem jrt = FileSystems.newFileSystem(URI.create("jrt:/"),
+                Collections.singletonMap("java.home", jdkHome.toString()))) {
+            write(jrt.getPath("/modules"), args[1], Paths.get(args[2]));
+        }
+    }
+
+    /** Write an archive with the modules in the given directory of a run-time image. */
+    static void write(Path modulesDir, String release, Path archive) throws IOException {
+        Map<String, Path> classFiles = new HashMap<>();
+        Map<String, String> classModules = new HashMap<>();
+        // module -> package -> class -> class file, all sorted by name
+        Map<String, Map<String, Map<String, byte[]>>> modules = new TreeMap<>();
+        Deque<String> work = new ArrayDeque<>();
+
+        List<Path> moduleDirs = new ArrayList<>();
+        try (Stream<Path> s = Files.list(modulesDir)) {
+            s.forEach(moduleDirs::add);
+        }
+        for (Path moduleDir : moduleDirs) {
+            String moduleName = moduleDir.getFileName().toString();
+            byte[] moduleInfo = Files.readAllBytes(moduleDir.resolve("module-info.class"));
+            Set<String> exported = new HashSet<>();
+            for (ModuleDescriptor.Exports e : ModuleDescriptor.read(ByteBuffer.wrap(moduleInfo)).exports()) {
+                if (!e.isQualified()) {
+                    exported.add(e.source().replace('.', '/'));
+                }
+            }
+            Map<String, Map<String, byte[]>> packages = new TreeMap<>();
+            packages.computeIfAbsent("", p -> new TreeMap<>()).put("module-info", moduleInfo);
+            modules.put(moduleName, packages);
+
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> s = Files.walk(moduleDir)) {
+                s.filter(p -> p.toString().endsWith(".class")).forEach(files::add);
+            }
+            for (Path file : files) {
+                String path = moduleDir.relativize(file).toString();
+                String name = path.substring(0, path.length() - ".class".length());
+                if (name.equals("module-info"))
+                    continue;
+                classFiles.put(name, file);
+                classModules.put(name, moduleName);
+                int sep = name.lastIndexOf('/');
+                if (sep != -1 && exported.contains(name.substring(0, sep))) {
+                    work.add(name);
+                }
+            }
+        }
+
+        Set<String> done = new HashSet<>();
+        while (!work.isEmpty()) {
+            String name = work.poll();
+            if (!done.add(name))
+                continue;
+            ClassStub stub = new ClassStub(Files.readAllBytes(classFiles.get(name)));
+            byte[] bytes = stub.write();
+            if (bytes == null)
+                continue;
+            int sep = name.lastIndexOf('/');
+            modules.get(classModules.get(name))
+                    .computeIfAbsent(name.substring(0, sep).replace('/', '.'), p -> new TreeMap<>())
+                    .put(name.substring(sep + 1), bytes);
+            for (String ref : stub.references) {
+                if (classFiles.containsKey(ref) && !done.contains(ref)) {
+                    work.add(ref);
+                }
+            }
+        }
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(index);
+        out.writeInt(SignatureArchive.MAGIC);
+        out.writeShort(SignatureArchive.VERSION);
+        out.writeUTF(release);
+        out.writeInt(modules.size());
+        for (Map.Entry<String, Map<String, Map<String, byte[]>>> m : modules.entrySet()) {
+            out.writeUTF(m.getKey());
+            out.writeInt(m.getValue().size());
+            for (Map.Entry<String, Map<String, byte[]>> p : m.getValue().entrySet()) {
+                out.writeUTF(p.getKey());
+                out.writeInt(p.getValue().size());
+                for (Map.Entry<String, byte[]> c : p.getValue().entrySet()) {
+                    out.writeUTF(c.getKey());
+                    out.writeInt(data.size());
+                    out.writeInt(c.getValue().length);
+                    data.write(c.getValue());
+                }
+            }
+        }
+        out.flush();
+
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(archive))) {
+            index.writeTo(os);
+            data.writeTo(os);
+        }
+    }
+
+    /**
+     * The stub of a class file. {@link #write} returns the stub, and
+     * {@link #references} then holds the names of the classes it refers to.
+     */
+    static class ClassStub {
+        private static final int ACC_PRIVATE = 0x0002;
+        private static final int ACC_SYNTHETIC = 0x1000;
+
+        /** Class names in descriptors and signatures; may also find some names that are not classes. */
+        private static final Pattern CLASS_NAME = Pattern.compile("L([^;<.:]+)[;<.]");
+
+        private final ByteBuffer in;
+        private final int[] tags;
+        private final int[] offsets;
+        private final String[] utf8;
+
+        /** The new constant pool, and the new indexes of the entries of the old one. */
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final int[] remap;
+        private int poolCount = 1;
+
+        /** The internal names of the classes referred to by the stub. */
+        final Set<String> references = new HashSet<>();
+
+        ClassStub(byte[] classFile) {
+            in = ByteBuffer.wrap(classFile);
+            in.position(8);
+            int size = u2();
+            tags = new int[size];
+            offsets = new int[size];
+            utf8 = new String[size];
+            remap = new int[size];
+            for (int i = 1; i < size; i++) {
+                int tag = in.get();
+                tags[i] = tag;
+                offsets[i] = in.position();
+                switch (tag) {
+                    case 1: // Utf8
+                        utf8[i] = readUtf8();
+                        break;
+                    case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                        skip(2);
+                        break;
+                    case 15: // MethodHandle
+                        skip(3);
+                        break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                        skip(4);
+                        break;
+                    case 5: case 6: // Long and Double take two entries
+                        skip(8);
+                        i++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("bad constant pool tag " + tag);
+                }
+            }
+        }
+
+        /** Return the stub, or null if the class is local, anonymous or synthetic. */
+        byte[] write() throws IOException {
+            int start = in.position();
+            int flags = u2();
+            int thisClass = u2();
+            int superClass = u2();
+            int[] interfaces = new int[u2()];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = u2();
+            }
+            int fieldsStart = in.position();
+            skipMembers();
+            skipMembers();
+            int attrCount = u2();
+            for (int i = 0; i < attrCount; i++) {
+                String name = utf8[u2()];
+                int len = in.getInt();
+                if (name.equals("EnclosingMethod"))
+                    return null;
+                skip(len);
+            }
+            if ((flags & ACC_SYNTHETIC) != 0)
+                return null;
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeShort(flags);
+            out.writeShort(ref(thisClass));
+            out.writeShort(ref(superClass));
+            out.writeShort(interfaces.length);
+            for (int i : interfaces) {
+                out.writeShort(ref(i));
+            }
+            in.position(fieldsStart);
+            writeMembers(out, false);
+            writeMembers(out, true);
+
+            // InnerClasses is written last, so that it only keeps the
+            // classes that the rest of the stub refers to
+            String thisName = utf8[u2(offsets[thisClass])];
+            List<byte[]> attrs = new ArrayList<>();
+            int innerClasses = -1;
+            attrCount = u2();
+            for (int i = 0; i < attrCount; i++) {
+                int attrStart = in.position();
+                String name = utf8[u2(attrStart)];
+                if (name.equals("InnerClasses")) {
+                    innerClasses = attrStart;
+                    skip(2);
+                    skip(in.getInt());
+                } else {
+                    byte[] a = writeAttribute();
+                    if (a != null)
+                        attrs.add(a);
+                }
+            }
+            if (innerClasses != -1) {
+                in.position(innerClasses);
+                attrs.add(writeInnerClasses(thisName));
+            }
+            out.writeShort(attrs.size());
+            for (byte[] a : attrs) {
+                out.write(a);
+            }
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(pool.size() + body.size() + 10);
+            DataOutputStream rout = new DataOutputStream(result);
+            rout.write(in.array(), 0, 8);
+            rout.writeShort(poolCount);
+            pool.writeTo(rout);
+            body.writeTo(rout);
+            rout.flush();
+            return result.toByteArray();
+        }
+
+        private void skipMembers() {
+            int count = u2();
+            for (int i = 0; i < count; i++) {
+                skip(6);
+                int attrCount = u2();
+                for (int a = 0; a < attrCount; a++) {
+                    skip(2);
+                    skip(in.getInt());
+                }
+            }
+        }
+
+        /** Write the fields or methods at the current position, leaving out private ones. */
+        private void writeMembers(DataOutputStream out, boolean methods) throws IOException {
+            int count = u2();
+            ByteArrayOutputStream members = new ByteArrayOutputStream();
+            DataOutputStream mout = new DataOutputStream(members);
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = u2();
+                int name = u2();
+                int descriptor = u2();
+                int attrCount = u2();
+                if ((flags & ACC_PRIVATE) != 0) {
+                    for (int a = 0; a < attrCount; a++) {
+                        skip(2);
+                        skip(in.getInt());
+                    }
+                    continue;
+                }
+                kept++;
+                mout.writeShort(flags);
+                mout.writeShort(ref(name));
+                mout.writeShort(refSignature(descriptor));
+                List<byte[]> attrs = new ArrayList<>();
+                for (int a = 0; a < attrCount; a++) {
+                    byte[] attr = writeAttribute();
+                    if (attr != null)
+                        attrs.add(attr);
+                }
+                mout.writeShort(attrs.size());
+                for (byte[] a : attrs) {
+                    mout.write(a);
+                }
+            }
+            out.writeShort(kept);
+            members.writeTo(out);
+        }
+
+        /** Return the attribute at the current position, or null if it is left out. */
+        private byte[] writeAttribute() throws IOException {
+            int nameIndex = u2();
+            int len = in.getInt();
+            int end = in.position() + len;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            switch (utf8[nameIndex]) {
+                case "Deprecated":
+                case "Synthetic":
+                    break;
+                case "ConstantValue":
+                    out.writeShort(ref(u2()));
+                    break;
+                case "Signature":
+                    out.writeShort(refSignature(u2()));
+                    break;
+                case "Exceptions":
+                case "PermittedSubclasses": {
+                    int n = u2();
+                    out.writeShort(n);
+                    for (int i = 0; i < n; i++) {
+                        out.writeShort(ref(u2()));
+                    }
+                    break;
+                }
+                case "MethodParameters": {
+                    int n = in.get() & 0xFF;
+                    out.writeByte(n);
+                    for (int i = 0; i < n; i++) {
+                        out.writeShort(ref(u2()));
+                        out.writeShort(u2());
+                    }
+                    break;
+                }
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    writeAnnotations(out);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                case "RuntimeInvisibleParameterAnnotations": {
+                    int n = in.get() & 0xFF;
+                    out.writeByte(n);
+                    for (int i = 0; i < n; i++) {
+                        writeAnnotations(out);
+                    }
+                    break;
+                }
+                case "AnnotationDefault":
+                    writeElementValue(out);
+                    break;
+                case "Record": {
+                    int n = u2();
+                    out.writeShort(n);
+                    for (int i = 0; i < n; i++) {
+                        out.writeShort(ref(u2()));
+                        out.writeShort(refSignature(u2()));
+                        int attrCount = u2();
+                        List<byte[]> attrs = new ArrayList<>();
+                        for (int a = 0; a < attrCount; a++) {
+                            byte[] attr = writeAttribute();
+                            if (attr != null)
+                                attrs.add(attr);
+                        }
+                        out.writeShort(attrs.size());
+                        for (byte[] a : attrs) {
+                            out.write(a);
+                        }
+                    }
+                    break;
+                }
+                default:
+                    // Code, SourceFile, NestHost, BootstrapMethods, type annotations...
+                    in.position(end);
+                    return null;
+            }
+            in.position(end);
+            return attribute(nameIndex, bytes);
+        }
+
+        private byte[] writeInnerClasses(String thisName) throws IOException {
+            int nameIndex = u2();
+            in.getInt();
+            int n = u2();
+            int[][] entries = new int[n][];
+            for (int i = 0; i < n; i++) {
+                entries[i] = new int[] {u2(), u2(), u2(), u2()};
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            List<int[]> kept = new ArrayList<>();
+            for (int[] e : entries) {
+                String inner = className(e[0]);
+                String outer = (e[1] == 0) ? null : className(e[1]);
+                if (inner.equals(thisName) || thisName.equals(outer) || references.contains(inner)) {
+                    kept.add(e);
+                }
+            }
+            out.writeShort(kept.size());
+            for (int[] e : kept) {
+                out.writeShort(ref(e[0]));
+                out.writeShort(ref(e[1]));
+                out.writeShort(ref(e[2]));
+                out.writeShort(e[3]);
+            }
+            return attribute(nameIndex, bytes);
+        }
+
+        private byte[] attribute(int nameIndex, ByteArrayOutputStream body) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() + 6);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(ref(nameIndex));
+            out.writeInt(body.size());
+            body.writeTo(out);
+            return bytes.toByteArray();
+        }
+
+        private void writeAnnotations(DataOutputStream out) throws IOException {
+            int n = u2();
+            out.writeShort(n);
+            for (int i = 0; i < n; i++) {
+                writeAnnotation(out);
+            }
+        }
+
+        private void writeAnnotation(DataOutputStream out) throws IOException {
+            out.writeShort(refSignature(u2()));
+            int n = u2();
+            out.writeShort(n);
+            for (int i = 0; i < n; i++) {
+                out.writeShort(ref(u2()));
+                writeElementValue(out);
+            }
+        }
+
+        private void writeElementValue(DataOutputStream out) throws IOException {
+            int tag = in.get();
+            out.writeByte(tag);
+            switch (tag) {
+                case 'e':
+                    out.writeShort(refSignature(u2()));
+                    out.writeShort(ref(u2()));
+                    break;
+                case 'c':
+                    out.writeShort(refSignature(u2()));
+                    break;
+                case '@':
+                    writeAnnotation(out);
+                    break;
+                case '[': {
+                    int n = u2();
+                    out.writeShort(n);
+                    for (int i = 0; i < n; i++) {
+                        writeElementValue(out);
+                    }
+                    break;
+                }
+                default:
+                    out.writeShort(ref(u2()));
+            }
+        }
+
+        private String className(int index) {
+            return utf8[u2(offsets[index])];
+        }
+
+        /** Enter a Utf8 entry holding a descriptor or signature, and note the classes it names. */
+        private int refSignature(int index) throws IOException {
+            addReferences(utf8[index]);
+            return ref(index);
+        }
+
+        private void addReferences(String signature) {
+            Matcher m = CLASS_NAME.matcher(signature);
+            while (m.find()) {
+                references.add(m.group(1));
+            }
+        }
+
+        /** Return the index in the new pool of an entry of the old pool, entering it if needed.
+         *  Entering a Class entry notes the class it names. */
+        private int ref(int index) throws IOException {
+            if (index == 0)
+                return 0;
+            if (remap[index] != 0)
+                return remap[index];
+            int tag = tags[index];
+            int off = offsets[index];
+            int n;
+            switch (tag) {
+                case 1:
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.writeUTF(utf8[index]);
+                    break;
+                case 7: case 8: case 16: case 19: case 20: {
+                    if (tag == 7) {
+                        String name = utf8[u2(off)];
+                        if (name.startsWith("[")) {
+                            addReferences(name);
+                        } else {
+                            references.add(name);
+                        }
+                    }
+                    int name = ref(u2(off));
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.writeShort(name);
+                    break;
+                }
+                case 3: case 4:
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.write(in.array(), off, 4);
+                    break;
+                case 5: case 6:
+                    n = poolCount;
+                    poolCount += 2;
+                    poolOut.writeByte(tag);
+                    poolOut.write(in.array(), off, 8);
+                    break;
+                case 12: {
+                    int name = ref(u2(off));
+                    int descriptor = refSignature(u2(off + 2));
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.writeShort(name);
+                    poolOut.writeShort(descriptor);
+                    break;
+                }
+                case 9: case 10: case 11: {
+                    int owner = ref(u2(off));
+                    int nameAndType = ref(u2(off + 2));
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.writeShort(owner);
+                    poolOut.writeShort(nameAndType);
+                    break;
+                }
+                case 15: {
+                    int ref = ref(u2(off + 1));
+                    n = poolCount++;
+                    poolOut.writeByte(tag);
+                    poolOut.writeByte(in.get(off));
+                    poolOut.writeShort(ref);
+                    break;
+                }
+                default:
+                    // Dynamic constants are only used by code
+                    throw new IllegalArgumentException("unexpected constant pool tag " + tag);
+            }
+            remap[index] = n;
+            return n;
+        }
+
+        private String readUtf8() {
+            int len = u2();
+            byte[] b = new byte[len + 2];
+            in.position(in.position() - 2);
+            in.get(b);
+            try {
+                return new java.io.DataInputStream(new java.io.ByteArrayInputStream(b)).readUTF();
+            } catch (IOException ex) {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+
+        private int u2() {
+            return in.getShort() & 0xFFFF;
+        }
+
+        private int u2(int pos) {
+            return in.getShort(pos) & 0xFFFF;
+        }
+
+        private void skip(int n) {
+            in.position(in.position() + n);
+        }
+    }
+}
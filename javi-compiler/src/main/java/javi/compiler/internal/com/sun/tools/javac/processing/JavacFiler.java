@@ -854,6 +854,11 @@ public class JavacFiler implements Filer, Closeable {
         aggregateGeneratedClassNames.clear();
     }
 
+    /** Return the number of files created for writing so far. */
+    int getCreatedFileCount() {
+        return fileObjectHistory.size();
+    }
+
     private void clearRoundState() {
         generatedSourceNames.clear();
         generatedSourceFileObjects.clear();
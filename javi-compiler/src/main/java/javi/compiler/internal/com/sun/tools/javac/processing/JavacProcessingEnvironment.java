@@ -72,6 +72,7 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -102,6 +103,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
     private final boolean fatalErrors;
     private final boolean werror;
     private final boolean showResolveErrors;
+    private final boolean incrementalRounds;
 
     private final JavacFiler filer;
     private final JavacMessager messager;
@@ -151,6 +153,8 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
     Source source;
 
     private ClassLoader processorClassLoader;
+    /** The cached loader used as processorClassLoader, if any. */
+    private ProcessorClassLoaderCache.CachedLoader cachedProcessorLoader;
     private ServiceLoader<javi.api.annotation.processing.Processor> serviceLoader;
     private SecurityException processorLoaderException;
 
@@ -201,6 +205,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         }
         fatalErrors = options.isSet("fatalEnterError");
         showResolveErrors = options.isSet("showResolveErrors");
+        incrementalRounds = options.isSet("incrementalRounds");
         werror = options.isSet(Option.WERROR);
         fileManager = context.get(JavaFileManager.class);
         platformAnnotations = initPlatformAnnotations();
@@ -262,22 +267,54 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
                 }
             } else {
                 // If processorpath is not explicitly set, use the classpath.
-                processorClassLoader = fileManager.hasLocation(ANNOTATION_PROCESSOR_PATH)
-                    ? fileManager.getClassLoader(ANNOTATION_PROCESSOR_PATH)
-                    : fileManager.getClassLoader(CLASS_PATH);
+                JavaFileManager.Location location = fileManager.hasLocation(ANNOTATION_PROCESSOR_PATH)
+                    ? ANNOTATION_PROCESSOR_PATH
+                    : CLASS_PATH;
 
-                if (options.isSet("accessInternalAPI"))
-                    ModuleHelper.addExports(getClass().getModule(), processorClassLoader.getUnnamedModule());
+                // the class path usually holds the output of the build, which
+                // changes from one compilation to the next: never cache it
+                if (options.isSet("cacheProcessorLoader") && location == ANNOTATION_PROCESSOR_PATH)
+                    processorClassLoader = getCachedProcessorLoader(location);
+
+                if (processorClassLoader == null) {
+                    processorClassLoader = fileManager.getClassLoader(location);
 
-                if (processorClassLoader != null && processorClassLoader instanceof Closeable) {
-                    compiler.closeables = compiler.closeables.prepend((Closeable) processorClassLoader);
+                    if (processorClassLoader != null && processorClassLoader instanceof Closeable) {
+                        compiler.closeables = compiler.closeables.prepend((Closeable) processorClassLoader);
+                    }
                 }
+
+                if (options.isSet("accessInternalAPI"))
+                    ModuleHelper.addExports(getClass().getModule(), processorClassLoader.getUnnamedModule());
             }
         } catch (SecurityException e) {
             processorLoaderException = e;
         }
     }
 
+    /** Get a loader for the given path from the processor class loader
+     *  cache, or null if the path cannot be cached.
+     */
+    private ClassLoader getCachedProcessorLoader(JavaFileManager.Location location) {
+        if (!(fileManager instanceof StandardJavaFileManager))
+            return null;
+        Iterable<? extends Path> path = ((StandardJavaFileManager) fileManager).getLocationAsPaths(location);
+        if (path == null)
+            return null;
+        ProcessorClassLoaderCache cache = ProcessorClassLoaderCache.instance();
+        try {
+            cachedProcessorLoader = cache.acquire(path, getClass().getClassLoader());
+        } catch (IOException e) {
+            // use an uncached loader
+            return null;
+        }
+        if (cachedProcessorLoader == null)
+            return null;
+        ProcessorClassLoaderCache.CachedLoader l = cachedProcessorLoader;
+        compiler.closeables = compiler.closeables.prepend(() -> cache.release(l));
+        return l.getLoader();
+    }
+
     private void initProcessorIterator(Iterable<? extends javi.api.annotation.processing.Processor> processors) {
         Iterator<? extends javi.api.annotation.processing.Processor> processorIterator;
 
@@ -675,6 +712,17 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         private Set<Pattern> supportedAnnotationPatterns;
         private Set<String> supportedOptionNames;
 
+        /** Time spent in init, in nanoseconds. */
+        long initTime;
+        /** Time spent in process, over all rounds, in nanoseconds. */
+        long processTime;
+        /** The number of times process was called. */
+        int processCount;
+        /** The number of elements the processor obtained from its round environments. */
+        int elementsSeen;
+        /** The number of files the processor created through the filer. */
+        int filesCreated;
+
         ProcessorState(javi.api.annotation.processing.Processor p, Log log, Source source, DeferredCompletionFailureHandler dcfh,
                        boolean allowModules, javi.api.annotation.processing.ProcessingEnvironment env, boolean lint) {
             processor = p;
@@ -682,7 +730,9 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
 
             Handler prevDeferredHandler = dcfh.setHandler(dcfh.userCodeHandler);
             try {
+                long start = System.nanoTime();
                 processor.init(env);
+                initTime = System.nanoTime() - start;
 
                 checkSourceVersionCompatibility(source, log);
 
@@ -840,7 +890,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
                     while(innerIter.hasNext()) {
                         ProcessorState ps = innerIter.next();
                         if (ps.contributed)
-                            callProcessor(ps.processor, emptyTypeElements, re);
+                            callProcessor(ps, emptyTypeElements, re);
                     }
                 }
             }
@@ -920,7 +970,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             }
 
             if (matchedNames.size() > 0 || ps.contributed) {
-                boolean processingResult = callProcessor(ps.processor, typeElements, renv);
+                boolean processingResult = callProcessor(ps, typeElements, renv);
                 ps.contributed = true;
                 ps.removeSupportedOptions(unmatchedProcessorOptions);
 
@@ -1000,12 +1050,16 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         }
     }
 
-    private boolean callProcessor(javi.api.annotation.processing.Processor proc,
+    private boolean callProcessor(ProcessorState ps,
                                   Set<? extends TypeElement> tes,
                                   javi.api.annotation.processing.RoundEnvironment renv) {
         Handler prevDeferredHandler = dcfh.setHandler(dcfh.userCodeHandler);
+        JavacRoundEnvironment jrenv = (JavacRoundEnvironment) renv;
+        int elements = jrenv.getElementsReturned();
+        int files = filer.getCreatedFileCount();
+        long start = System.nanoTime();
         try {
-            return proc.process(tes, renv);
+            return ps.processor.process(tes, renv);
         } catch (ClassFinder.BadClassFile ex) {
             log.error(Errors.ProcCantAccess1(ex.sym, ex.getDetailValue()));
             return false;
@@ -1020,6 +1074,36 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             throw new AnnotationProcessingError(t);
         } finally {
             dcfh.setHandler(prevDeferredHandler);
+            long time = System.nanoTime() - start;
+            elements = jrenv.getElementsReturned() - elements;
+            files = filer.getCreatedFileCount() - files;
+            ps.processTime += time;
+            ps.processCount++;
+            ps.elementsSeen += elements;
+            ps.filesCreated += files;
+            if (printRounds || verbose) {
+                log.printLines("x.print.processor.time",
+                        ps.processor.getClass().getName(),
+                        TimeUnit.NANOSECONDS.toMillis(time),
+                        elements,
+                        files);
+            }
+        }
+    }
+
+    /** Print the time taken and the work done by each processor
+     *  over all rounds. */
+    private void printProcessorSummary() {
+        if ((printRounds || verbose) && discoveredProcs != null) {
+            for (ProcessorState ps : discoveredProcs.procStateList) {
+                log.printLines("x.print.processor.summary",
+                        ps.processor.getClass().getName(),
+                        TimeUnit.NANOSECONDS.toMillis(ps.initTime),
+                        TimeUnit.NANOSECONDS.toMillis(ps.processTime),
+                        ps.processCount,
+                        ps.elementsSeen,
+                        ps.filesCreated);
+            }
         }
     }
 
@@ -1048,6 +1132,14 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         /** The set of module-info files to be processed this round. */
         List<ModuleSymbol> moduleInfoFiles;
 
+        /** Whether the symbols of the previous rounds were kept, and only
+         *  the files generated by the previous round were entered. */
+        boolean symbolsKept;
+        /** Whether any errors, including recoverable ones, were found in this round. */
+        boolean errorsFound;
+        /** The time taken to set up this round, in nanoseconds. */
+        long setupTime;
+
         /** Create a round (common code). */
         private Round(int number, Set<JCCompilationUnit> treesToClean,
                 Log.DeferredDiagnosticHandler deferredDiagnosticHandler) {
@@ -1094,43 +1186,64 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         private Round(Round prev,
                 Set<JavaFileObject> newSourceFiles, Map<ModuleSymbol, Map<String,JavaFileObject>> newClassFiles) {
             this(prev.number+1, prev.treesToClean, null);
-            prev.newRound();
-            this.genClassFiles = prev.genClassFiles;
-
-            //parse the generated files even despite errors reported so far, to eliminate
-            //recoverable errors related to the type declared in the generated files:
-            List<JCCompilationUnit> parsedFiles = compiler.parseFiles(newSourceFiles, true);
-            roots = prev.roots.appendList(parsedFiles);
+            long start = System.nanoTime();
+            try {
+                symbolsKept = prev.canKeepSymbols();
+                if (symbolsKept)
+                    prev.newIncrementalRound();
+                else
+                    prev.newRound();
+                this.genClassFiles = prev.genClassFiles;
+
+                //parse the generated files even despite errors reported so far, to eliminate
+                //recoverable errors related to the type declared in the generated files:
+                List<JCCompilationUnit> parsedFiles = compiler.parseFiles(newSourceFiles, true);
+                roots = prev.roots.appendList(parsedFiles);
+
+                if (symbolsKept && prev.shadowsStarImport(parsedFiles, newClassFiles)) {
+                    // a kept unit may have resolved the name to the type now shadowed
+                    symbolsKept = false;
+                    prev.newRound();
+                }
 
-            // Check for errors after parsing
-            if (unrecoverableError()) {
-                compiler.initModules(List.nil());
-                return;
-            }
+                // Check for errors after parsing
+                if (unrecoverableError()) {
+                    if (!symbolsKept)
+                        compiler.initModules(List.nil());
+                    return;
+                }
 
-            roots = compiler.initModules(roots);
+                if (symbolsKept) {
+                    // the module graph is still set up, only the new files need a module
+                    enterModule(parsedFiles);
+                } else {
+                    roots = compiler.initModules(roots);
+                    enterClassFiles(genClassFiles);
+                }
 
-            enterClassFiles(genClassFiles);
-            List<ClassSymbol> newClasses = enterClassFiles(newClassFiles);
-            for (Entry<ModuleSymbol, Map<String, JavaFileObject>> moduleAndClassFiles : newClassFiles.entrySet()) {
-                genClassFiles.computeIfAbsent(moduleAndClassFiles.getKey(), m -> new LinkedHashMap<>()).putAll(moduleAndClassFiles.getValue());
-            }
-            enterTrees(roots);
+                List<ClassSymbol> newClasses = enterClassFiles(newClassFiles);
+                for (Entry<ModuleSymbol, Map<String, JavaFileObject>> moduleAndClassFiles : newClassFiles.entrySet()) {
+                    genClassFiles.computeIfAbsent(moduleAndClassFiles.getKey(), m -> new LinkedHashMap<>()).putAll(moduleAndClassFiles.getValue());
+                }
+                enterTrees(symbolsKept ? parsedFiles : roots);
 
-            if (unrecoverableError())
-                return;
+                if (unrecoverableError())
+                    return;
 
-            topLevelClasses = join(
-                    getTopLevelClasses(parsedFiles),
-                    getTopLevelClassesFromClasses(newClasses));
+                topLevelClasses = join(
+                        getTopLevelClasses(parsedFiles),
+                        getTopLevelClassesFromClasses(newClasses));
 
-            packageInfoFiles = join(
-                    getPackageInfoFiles(parsedFiles),
-                    getPackageInfoFilesFromClasses(newClasses));
+                packageInfoFiles = join(
+                        getPackageInfoFiles(parsedFiles),
+                        getPackageInfoFilesFromClasses(newClasses));
 
-            moduleInfoFiles = List.nil(); //module-info cannot be generated
+                moduleInfoFiles = List.nil(); //module-info cannot be generated
 
-            findAnnotationsPresent();
+                findAnnotationsPresent();
+            } finally {
+                setupTime = System.nanoTime() - start;
+            }
         }
 
         /** Create the next round to be used. */
@@ -1143,6 +1256,12 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             newRound();
         }
 
+        /** Prepare the compiler for the final compilation, keeping the
+         *  symbols entered so far. */
+        void finalIncrementalCompiler() {
+            newIncrementalRound();
+        }
+
         /** Return the number of errors found so far in this round.
          * This may include unrecoverable errors, such as parse errors,
          * and transient errors, such as missing symbols. */
@@ -1239,6 +1358,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             if (!taskListener.isEmpty())
                 taskListener.started(new TaskEvent(TaskEvent.Kind.ANNOTATION_PROCESSING_ROUND));
 
+            long start = System.nanoTime();
             try {
                 if (lastRound) {
                     filer.setLastRound(true);
@@ -1263,9 +1383,14 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
                 if (!taskListener.isEmpty())
                     taskListener.finished(new TaskEvent(TaskEvent.Kind.ANNOTATION_PROCESSING_ROUND));
             }
+            printRoundTime(System.nanoTime() - start);
         }
 
         void showDiagnostics(boolean showAll) {
+            for (JCDiagnostic d: deferredDiagnosticHandler.getDiagnostics()) {
+                if (d.getKind() == JCDiagnostic.Kind.ERROR)
+                    errorsFound = true;
+            }
             deferredDiagnosticHandler.reportDeferredDiagnostics(showAll ? ACCEPT_ALL
                                                                         : ACCEPT_NON_RECOVERABLE);
             log.popDiagnosticHandler(deferredDiagnosticHandler);
@@ -1291,6 +1416,90 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             }
         }
 
+        /** Print the time taken by this round. */
+        private void printRoundTime(long runTime) {
+            if (printRounds || verbose) {
+                log.printLines("x.print.round.time",
+                        number,
+                        TimeUnit.NANOSECONDS.toMillis(setupTime),
+                        TimeUnit.NANOSECONDS.toMillis(runTime),
+                        symbolsKept);
+            }
+        }
+
+        /** Can the next round keep the symbols entered so far, entering only
+         *  the newly generated files? This requires -XDincrementalRounds, and
+         *  that nothing entered so far failed to resolve: a reference to a
+         *  type that did not exist yet might refer to a generated type now,
+         *  which is only found by entering everything again. -printsource
+         *  needs the classes of all files entered together, so it always
+         *  enters everything again.
+         *
+         *  <p>A generated type may also shadow a type imported on demand by a
+         *  kept file, which is checked with {@link #shadowsStarImport} once the
+         *  generated files are parsed.
+         */
+        boolean canKeepSymbols() {
+            return incrementalRounds
+                    && !options.isSet(Option.PRINTSOURCE)
+                    && !modules.multiModuleMode
+                    && !errorsFound
+                    && compiler.errorCount() == 0
+                    && !hasErroneousClasses();
+        }
+
+        /** Prepare for new round of annotation processing, keeping trees and
+         *  symbols, and asks selected services to prepare to a new round.
+         */
+        private void newIncrementalRound() {
+            filer.newRound();
+            messager.newRound();
+            types.newRound();
+            annotate.newRound();
+            elementUtils.newRound();
+        }
+
+        /** Does a new top level type have the simple name of a type imported
+         *  on demand by a file entered so far? The file resolved the name to
+         *  the imported type, while entering it again would find the new type
+         *  in its package, or report the name as ambiguous.
+         */
+        boolean shadowsStarImport(List<JCCompilationUnit> parsedFiles,
+                                  Map<ModuleSymbol, Map<String, JavaFileObject>> newClassFiles) {
+            Set<Name> newNames = new HashSet<>();
+            for (JCCompilationUnit unit : parsedFiles) {
+                for (JCTree def : unit.defs) {
+                    if (def.hasTag(Tag.CLASSDEF))
+                        newNames.add(((JCClassDecl) def).name);
+                }
+            }
+            for (Map<String, JavaFileObject> classFiles : newClassFiles.values()) {
+                for (String className : classFiles.keySet()) {
+                    if (className.indexOf('$') < 0)
+                        newNames.add(names.fromString(className.substring(className.lastIndexOf('.') + 1)));
+                }
+            }
+            if (newNames.isEmpty())
+                return false;
+            for (Env<AttrContext> env : enter.getEnvs()) {
+                if (env.toplevel.starImportScope == null)
+                    continue;
+                for (Name name : newNames) {
+                    if (env.toplevel.starImportScope.findFirst(name) != null)
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasErroneousClasses() {
+            for (ClassSymbol cs : symtab.getAllClasses()) {
+                if (cs.kind == ERR)
+                    return true;
+            }
+            return false;
+        }
+
         /** Prepare for new round of annotation processing. Cleans trees, resets symbols, and
          * asks selected services to prepare to a new round of annotation processing.
          */
@@ -1312,16 +1521,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
             annotate.newRound();
             elementUtils.newRound();
 
-            boolean foundError = false;
-
-            for (ClassSymbol cs : symtab.getAllClasses()) {
-                if (cs.kind == ERR) {
-                    foundError = true;
-                    break;
-                }
-            }
-
-            if (foundError) {
+            if (hasErroneousClasses()) {
                 for (ClassSymbol cs : symtab.getAllClasses()) {
                     if (cs.classfile != null || cs.kind == ERR) {
                         Kinds.Kind symKind = cs.kind;
@@ -1391,6 +1591,7 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
 
         filer.warnIfUnclosedFiles();
         warnIfUnmatchedOptions();
+        printProcessorSummary();
 
         /*
          * If an annotation processor raises an error in a round,
@@ -1414,8 +1615,11 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         errorStatus = errorStatus || (compiler.errorCount() > 0);
 
 
-        if (newSourceFiles.size() > 0)
-            roots = roots.appendList(compiler.parseFiles(newSourceFiles));
+        List<JCCompilationUnit> parsedFiles = List.nil();
+        if (newSourceFiles.size() > 0) {
+            parsedFiles = compiler.parseFiles(newSourceFiles);
+            roots = roots.appendList(parsedFiles);
+        }
 
         errorStatus = errorStatus || (compiler.errorCount() > 0);
 
@@ -1424,8 +1628,14 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         }
 
         if (compiler.continueAfterProcessAnnotations()) {
-            round.finalCompiler();
-            compiler.enterTrees(compiler.initModules(roots));
+            if (!errorStatus && round.canKeepSymbols() && !round.shadowsStarImport(parsedFiles, Map.of())) {
+                round.finalIncrementalCompiler();
+                enterModule(parsedFiles);
+                compiler.enterTrees(parsedFiles);
+            } else {
+                round.finalCompiler();
+                compiler.enterTrees(compiler.initModules(roots));
+            }
         } else {
             compiler.todo.clear();
         }
@@ -1439,6 +1649,14 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
         return true;
     }
 
+    /** Put newly generated files in the module being compiled, as
+     *  Modules would for a single-module compilation. */
+    private void enterModule(List<JCCompilationUnit> units) {
+        for (JCCompilationUnit unit : units) {
+            unit.modle = modules.getDefaultModule();
+        }
+    }
+
     private void warnIfUnmatchedOptions() {
         if (!unmatchedProcessorOptions.isEmpty()) {
             log.warning(Warnings.ProcUnmatchedProcessorOptions(unmatchedProcessorOptions.toString()));
@@ -1450,11 +1668,30 @@ public class JavacProcessingEnvironment implements javi.api.annotation.processin
      */
     public void close() {
         filer.close();
-        if (discoveredProcs != null) // Make calling close idempotent
+        if (discoveredProcs != null) { // Make calling close idempotent
+            if (cachedProcessorLoader != null)
+                resetProcessors(discoveredProcs);
             discoveredProcs.close();
+        }
         discoveredProcs = null;
     }
 
+    /**
+     * Give processors loaded by a cached class loader, which keep their
+     * static state into the next compilation, a chance to reset it.
+     */
+    private void resetProcessors(DiscoveredProcessors procs) {
+        for (ProcessorState ps : procs.procStateList) {
+            if (ps.processor instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) ps.processor).close();
+                } catch (Exception e) {
+                    // Ignore problems during a call to close.
+                }
+            }
+        }
+    }
+
     private List<ClassSymbol> getTopLevelClasses(List<? extends JCCompilationUnit> units) {
         List<ClassSymbol> classes = List.nil();
         for (JCCompilationUnit unit : units) {
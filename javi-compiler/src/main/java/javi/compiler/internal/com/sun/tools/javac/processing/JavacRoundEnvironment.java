@@ -60,6 +60,16 @@ public class JavacRoundEnvironment implements RoundEnvironment {
     // Caller must pass in an immutable set
     private final Set<? extends Element> rootElements;
 
+    /** The number of elements returned to processors so far. */
+    private int elementsReturned;
+
+    /** The annotated elements included in this round, in scan order, with
+     *  the types of the annotations present on each, and the same elements
+     *  by annotation type. Computed in a single scan on first use, and shared
+     *  by all queries, and so by all processors, of the round. */
+    private Map<Element, Set<Element>> annotationTypesOf;
+    private Map<Element, Set<Element>> elementsByAnnotation;
+
     JavacRoundEnvironment(boolean processingOver,
                           boolean errorRaised,
                           Set<? extends Element> rootElements,
@@ -72,6 +82,11 @@ public class JavacRoundEnvironment implements RoundEnvironment {
         this.eltUtils = processingEnv.getElementUtils();
     }
 
+    /** Return the number of elements returned by this round environment so far. */
+    int getElementsReturned() {
+        return elementsReturned;
+    }
+
     public String toString() {
         return String.format("[errorRaised=%b, rootElements=%s, processingOver=%b]",
                              errorRaised,
@@ -104,6 +119,7 @@ public class JavacRoundEnvironment implements RoundEnvironment {
      */
     @DefinedBy(Api.ANNOTATION_PROCESSING)
     public Set<? extends Element> getRootElements() {
+        elementsReturned += rootElements.size();
         return rootElements;
     }
 
@@ -123,13 +139,10 @@ public class JavacRoundEnvironment implements RoundEnvironment {
     public Set<? extends Element> getElementsAnnotatedWith(TypeElement a) {
         throwIfNotAnnotation(a);
 
-        Set<Element> result = Collections.emptySet();
-        @SuppressWarnings("preview")
-        var scanner = new AnnotationSetScanner(result);
-
-        for (Element element : rootElements)
-            result = scanner.scan(element, a);
+        buildIndex();
+        Set<Element> result = new LinkedHashSet<>(elementsByAnnotation.getOrDefault(a, Collections.emptySet()));
 
+        elementsReturned += result.size();
         return result;
     }
 
@@ -144,85 +157,64 @@ public class JavacRoundEnvironment implements RoundEnvironment {
             annotationSet.add(annotation);
         }
 
-        Set<Element> result = Collections.emptySet();
-        @SuppressWarnings("preview")
-        var scanner = new AnnotationSetMultiScanner(result);
-
-        for (Element element : rootElements)
-            result = scanner.scan(element, annotationSet);
+        buildIndex();
+        Set<Element> result = new LinkedHashSet<>();
+        for (Map.Entry<Element, Set<Element>> entry : annotationTypesOf.entrySet()) {
+            if (!Collections.disjoint(entry.getValue(), annotationSet))
+                result.add(entry.getKey());
+        }
 
+        elementsReturned += result.size();
         return result;
     }
 
-    // Could be written as a local class inside getElementsAnnotatedWith
-    @SuppressWarnings("preview")
-    private class AnnotationSetScanner extends
-        ElementScanner14<Set<Element>, TypeElement> {
-        // Insertion-order preserving set
-        private Set<Element> annotatedElements = new LinkedHashSet<>();
-
-        AnnotationSetScanner(Set<Element> defaultSet) {
-            super(defaultSet);
-        }
-
-        @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> scan(Element e, TypeElement annotation) {
-            for (AnnotationMirror annotMirror :  eltUtils.getAllAnnotationMirrors(e)) {
-                if (annotation.equals(mirrorAsElement(annotMirror))) {
-                    annotatedElements.add(e);
-                    break;
+    private void buildIndex() {
+        if (annotationTypesOf == null) {
+            @SuppressWarnings("preview")
+            var scanner = new AnnotatedElementScanner();
+            for (Element element : rootElements)
+                scanner.scan(element, null);
+            annotationTypesOf = scanner.annotationTypesOf;
+            elementsByAnnotation = new HashMap<>();
+            for (Map.Entry<Element, Set<Element>> entry : annotationTypesOf.entrySet()) {
+                for (Element annotationType : entry.getValue()) {
+                    elementsByAnnotation.computeIfAbsent(annotationType, a -> new LinkedHashSet<>())
+                            .add(entry.getKey());
                 }
             }
-            e.accept(this, annotation);
-            return annotatedElements;
-        }
-
-        @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> visitModule(ModuleElement e, TypeElement annotation) {
-            // Do not scan a module
-            return annotatedElements;
-        }
-
-        @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> visitPackage(PackageElement e, TypeElement annotation) {
-            // Do not scan a package
-            return annotatedElements;
         }
     }
 
-    // Could be written as a local class inside getElementsAnnotatedWithAny
+    // Scans the root elements once, recording the annotations on each element
     @SuppressWarnings("preview")
-    private class AnnotationSetMultiScanner extends
-        ElementScanner14<Set<Element>, Set<TypeElement>> {
-        // Insertion-order preserving set
-        private Set<Element> annotatedElements = new LinkedHashSet<>();
-
-        AnnotationSetMultiScanner(Set<Element> defaultSet) {
-            super(defaultSet);
-        }
+    private class AnnotatedElementScanner extends
+        ElementScanner14<Void, Void> {
+        // Insertion-order preserving map
+        private final Map<Element, Set<Element>> annotationTypesOf = new LinkedHashMap<>();
 
         @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> scan(Element e, Set<TypeElement> annotations) {
-            for (AnnotationMirror annotMirror : eltUtils.getAllAnnotationMirrors(e)) {
-                if (annotations.contains(mirrorAsElement(annotMirror))) {
-                    annotatedElements.add(e);
-                    break;
+        public Void scan(Element e, Void p) {
+            List<? extends AnnotationMirror> mirrors = eltUtils.getAllAnnotationMirrors(e);
+            if (!mirrors.isEmpty() && !annotationTypesOf.containsKey(e)) {
+                Set<Element> annotationTypes = new HashSet<>();
+                for (AnnotationMirror annotMirror : mirrors) {
+                    annotationTypes.add(mirrorAsElement(annotMirror));
                 }
+                annotationTypesOf.put(e, annotationTypes);
             }
-            e.accept(this, annotations);
-            return annotatedElements;
+            return e.accept(this, p);
         }
 
         @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> visitModule(ModuleElement e, Set<TypeElement> annotations) {
+        public Void visitModule(ModuleElement e, Void p) {
             // Do not scan a module
-            return annotatedElements;
+            return null;
         }
 
         @Override @DefinedBy(Api.LANGUAGE_MODEL)
-        public Set<Element> visitPackage(PackageElement e, Set<TypeElement> annotations) {
+        public Void visitPackage(PackageElement e, Void p) {
             // Do not scan a package
-            return annotatedElements;
+            return null;
         }
     }
 
@@ -0,0 +1,228 @@
+package javi.compiler.internal.com.sun.tools.javac.processing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cache of annotation processor class loaders, shared by all compilations
+ * in this VM, so that compilations with the same processor path (such as
+ * the modules of a build, compiled through a {@code JavacTaskPool} or the
+ * in-process plexus compiler) load and JIT-compile the processors once.
+ * It is used when {@code -XDcacheProcessorLoader} is given together with an
+ * explicit {@code -processorpath}.
+ *
+ * <p>Loaders are keyed by a digest of the contents of the processor path,
+ * the bytes of each of its jar files, so a changed processor path gets a new
+ * loader. Digests of jar files are remembered as long as their size and
+ * modification time do not change, and a cached loader uses them. A processor
+ * path holding directories is
+ * not cached: they are typically outputs of the same build, and would have
+ * to be walked on every compilation only to find them changed.
+ *
+ * <p>Classes loaded by a cached loader keep their static state from one
+ * compilation to the next. Processors that implement {@link AutoCloseable}
+ * are closed at the end of each compilation, to let them reset such state;
+ * other processors must not depend on static state being fresh.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class ProcessorClassLoaderCache {
+
+    /** The maximum number of loaders kept. */
+    private static final int MAX_LOADERS = 8;
+
+    private static final ProcessorClassLoaderCache instance = new ProcessorClassLoaderCache();
+
+    /** The cached loaders by digest, least recently used first. */
+    private final LinkedHashMap<String, CachedLoader> loaders = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The digests of the jar files of the cached loaders, with the size and time they were computed for. */
+    private final Map<Path, FileDigest> fileDigests = new HashMap<>();
+
+    private int hits;
+    private int misses;
+
+    public static ProcessorClassLoaderCache instance() {
+        return instance;
+    }
+
+    /** Get a loader for the given processor path, creating it if needed,
+     *  or null if the path holds directories and cannot be cached.
+     *  The loader must be {@linkplain #release released} when the
+     *  compilation no longer needs it.
+     */
+    public synchronized CachedLoader acquire(Iterable<? extends Path> path, ClassLoader parent) throws IOException {
+        String digest = digest(path);
+        if (digest == null) {
+            pruneFileDigests();
+            return null;
+        }
+        CachedLoader l = loaders.get(digest);
+        if (l == null || l.loader.getParent() != parent) {
+            misses++;
+            if (l != null)
+                evict(l);
+            List<Path> files = new ArrayList<>();
+            path.forEach(files::add);
+            l = new CachedLoader(digest, files, new URLClassLoader(toURLs(path), parent));
+            loaders.put(digest, l);
+            trim();
+            pruneFileDigests();
+        } else {
+            hits++;
+        }
+        l.users++;
+        return l;
+    }
+
+    /** Give back a loader obtained from {@link #acquire}. */
+    public synchronized void release(CachedLoader l) throws IOException {
+        l.users--;
+        if (l.evicted && l.users == 0)
+            l.loader.close();
+    }
+
+    public synchronized void printStatistics(PrintStream out) {
+        out.println(hits + " reused processor class loaders");
+        out.println(misses + " newly created processor class loaders");
+    }
+
+    private void trim() throws IOException {
+        Iterator<CachedLoader> it = loaders.values().iterator();
+        while (loaders.size() > MAX_LOADERS && it.hasNext()) {
+            CachedLoader l = it.next();
+            it.remove();
+            l.evicted = true;
+            if (l.users == 0)
+                l.loader.close();
+        }
+    }
+
+    private void evict(CachedLoader l) throws IOException {
+        loaders.remove(l.digest);
+        l.evicted = true;
+        if (l.users == 0)
+            l.loader.close();
+    }
+
+    /** Forget the digests of files not on the path of any cached loader. */
+    private void pruneFileDigests() {
+        Set<Path> used = new HashSet<>();
+        for (CachedLoader l : loaders.values()) {
+            used.addAll(l.files);
+        }
+        fileDigests.keySet().retainAll(used);
+    }
+
+    private static URL[] toURLs(Iterable<? extends Path> path) throws MalformedURLException {
+        List<URL> urls = new ArrayList<>();
+        for (Path p : path) {
+            urls.add(p.toUri().toURL());
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    /** The digest of the jar files of a path, or null if it holds a directory. */
+    private String digest(Iterable<? extends Path> path) throws IOException {
+        MessageDigest md = newDigest();
+        for (Path p : path) {
+            if (Files.isDirectory(p))
+                return null;
+            md.update(p.toString().getBytes(StandardCharsets.UTF_8));
+            if (Files.isRegularFile(p)) {
+                md.update(fileDigest(p));
+            }
+            md.update((byte) 0);
+        }
+        return toHex(md.digest());
+    }
+
+    private byte[] fileDigest(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attrs.size();
+        long time = attrs.lastModifiedTime().toMillis();
+        FileDigest d = fileDigests.get(file);
+        if (d == null || d.size != size || d.time != time) {
+            MessageDigest md = newDigest();
+            byte[] buf = new byte[8192];
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    md.update(buf, 0, n);
+                }
+            }
+            d = new FileDigest(size, time, md.digest());
+            fileDigests.put(file, d);
+        }
+        return d.digest;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /** A cached loader, with the number of compilations using it. */
+    public static class CachedLoader {
+        final String digest;
+        final List<Path> files;
+        final URLClassLoader loader;
+        int users;
+        boolean evicted;
+
+        CachedLoader(String digest, List<Path> files, URLClassLoader loader) {
+            this.digest = digest;
+            this.files = files;
+            this.loader = loader;
+        }
+
+        public ClassLoader getLoader() {
+            return loader;
+        }
+    }
+
+    private static class FileDigest {
+        final long size;
+        final long time;
+        final byte[] digest;
+
+        FileDigest(long size, long time, byte[] digest) {
+            this.size = size;
+            this.time = time;
+            this.digest = digest;
+        }
+    }
+}
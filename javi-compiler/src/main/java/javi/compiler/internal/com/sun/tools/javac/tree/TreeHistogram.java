@@ -0,0 +1,116 @@
+package javi.compiler.internal.com.sun.tools.javac.tree;
+
+import javi.compiler.internal.com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import javi.compiler.internal.com.sun.tools.javac.util.List;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A histogram of the tree nodes in a set of compilation units, by node class,
+ * with an estimate of the heap they take. Sizes are shallow sizes computed
+ * from the declared fields of each class, assuming a 64-bit VM with
+ * compressed references (12-byte headers, 4-byte references, 8-byte
+ * alignment). Printed after parsing with {@code -XDtreeHistogram}.
+ *
+ *  <p><b>This is NOT part of any supported API.
+ *  If you write code that depends on this, you do so at your own risk.
+ *  This code and its internal interfaces are subject to change or
+ *  deletion without notice.</b>
+ */
+public class TreeHistogram extends TreeScanner {
+
+    private static final int HEADER_SIZE = 12;
+    private static final int REFERENCE_SIZE = 4;
+
+    private static final Map<Class<?>, Integer> shallowSizes = new HashMap<>();
+
+    private final Map<Class<?>, long[]> counts = new HashMap<>();
+
+    /** The number of list cells linking the nodes. */
+    private long listCells;
+
+    public void add(List<JCCompilationUnit> units) {
+        for (JCCompilationUnit unit : units) {
+            scan(unit);
+        }
+    }
+
+    @Override
+    public void scan(JCTree tree) {
+        if (tree != null) {
+            count(tree.getClass(), 1);
+            super.scan(tree);
+        }
+    }
+
+    @Override
+    public void scan(List<? extends JCTree> trees) {
+        if (trees != null) {
+            listCells += trees.size();
+        }
+        super.scan(trees);
+    }
+
+    private void count(Class<?> c, int n) {
+        long[] entry = counts.computeIfAbsent(c, k -> new long[1]);
+        entry[0] += n;
+    }
+
+    /** Return the histogram as a table, largest total size first. */
+    @Override
+    public String toString() {
+        java.util.List<Map.Entry<Class<?>, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue()[0] * shallowSize(e2.getKey()),
+                                              e1.getValue()[0] * shallowSize(e1.getKey())));
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %12s %14s%n", "tree", "count", "bytes"));
+        long totalCount = 0, totalBytes = 0;
+        for (Map.Entry<Class<?>, long[]> e : entries) {
+            long count = e.getValue()[0];
+            long bytes = count * shallowSize(e.getKey());
+            sb.append(String.format("%-24s %12d %14d%n", e.getKey().getSimpleName(), count, bytes));
+            totalCount += count;
+            totalBytes += bytes;
+        }
+        long listBytes = listCells * shallowSize(List.class);
+        sb.append(String.format("%-24s %12d %14d%n", "List", listCells, listBytes));
+        sb.append(String.format("%-24s %12d %14d", "total", totalCount + listCells, totalBytes + listBytes));
+        return sb.toString();
+    }
+
+    /** Estimate the shallow size of instances of a class. */
+    static synchronized int shallowSize(Class<?> c) {
+        Integer size = shallowSizes.get(c);
+        if (size == null) {
+            int s = HEADER_SIZE;
+            for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+                for (Field f : k.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        s += fieldSize(f.getType());
+                    }
+                }
+            }
+            size = (s + 7) & ~7;
+            shallowSizes.put(c, size);
+        }
+        return size;
+    }
+
+    private static int fieldSize(Class<?> t) {
+        if (t == long.class || t == double.class) {
+            return 8;
+        } else if (t == int.class || t == float.class) {
+            return 4;
+        } else if (t == short.class || t == char.class) {
+            return 2;
+        } else if (t == byte.class || t == boolean.class) {
+            return 1;
+        } else {
+            return REFERENCE_SIZE;
+        }
+    }
+}
@@ -1033,9 +1033,9 @@ public class TreeMaker implements JCTree.Factory {
      */
     public List<JCVariableDecl> Params(List<Type> argtypes, Symbol owner) {
         ListBuffer<JCVariableDecl> params = new ListBuffer<>();
-        MethodSymbol mth = (owner.kind == MTH) ? ((MethodSymbol)owner) : null;
-        if (mth != null && mth.params != null && argtypes.length() == mth.params.length()) {
-            for (VarSymbol param : ((MethodSymbol)owner).params)
+        List<VarSymbol> mthParams = (owner.kind == MTH) ? ((MethodSymbol)owner).paramsOrNull() : null;
+        if (mthParams != null && argtypes.length() == mthParams.length()) {
+            for (VarSymbol param : mthParams)
                 params.append(VarDef(param, null));
         } else {
             int i = 0;
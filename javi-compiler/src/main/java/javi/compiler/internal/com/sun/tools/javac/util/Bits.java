@@ -28,6 +28,14 @@ package javi.compiler.internal.com.sun.tools.javac.util;
 import java.util.Arrays;
 
 /** A class for extensible, mutable bit sets.
+ *
+ *  <p>Copies are copy-on-write: {@link #dup}, {@link #assign} and the copy
+ *  constructor share the words of the original set, and whichever of the
+ *  two sets is changed first makes its own copy. Flow analysis takes many
+ *  snapshots of its sets that are never changed, or only restored from, and
+ *  these no longer copy the words of every variable in the method. The
+ *  operations combining two sets leave a shared set alone when they would
+ *  not change it.
  *
  *  <p><b>This is NOT part of any supported API.
  *  If you write code that depends on this, you do so at your own risk.
@@ -88,10 +96,19 @@ public class Bits {
     private final static int wordshift = 5;
     private final static int wordmask = wordlen - 1;
 
-    public int[] bits = null;
+    /** The words of this set. They may be shared with other sets (see
+     *  {@link #shared}), so they must only be changed through
+     *  {@link #sizeTo}.
+     */
+    private int[] bits = null;
     // This field will store last version of bits after every change.
     private static final int[] unassignedBits = new int[0];
 
+    /** Whether the words of this set may be shared with another set, so that
+     *  they must be copied before they are changed.
+     */
+    private boolean shared;
+
     protected BitsState currentState;
 
     /** Construct an initially empty set.
@@ -102,6 +119,7 @@ public class Bits {
 
     public Bits(Bits someBits) {
         this(someBits.dup().bits, BitsState.getState(someBits.bits, false));
+        shared = true;
     }
 
     public Bits(boolean reset) {
@@ -123,9 +141,13 @@ public class Bits {
         }
     }
 
+    /** Make the words of this set at least `len' long, and owned by this
+     *  set, so that they can be changed.
+     */
     protected void sizeTo(int len) {
-        if (bits.length < len) {
-            bits = Arrays.copyOf(bits, len);
+        if (shared || bits.length < len) {
+            bits = Arrays.copyOf(bits, Math.max(bits.length, len));
+            shared = false;
         }
     }
 
@@ -133,8 +155,11 @@ public class Bits {
      */
     public void clear() {
         Assert.check(currentState != BitsState.UNKNOWN);
-        for (int i = 0; i < bits.length; i++) {
-            bits[i] = 0;
+        if (shared) {
+            bits = new int[bits.length];
+            shared = false;
+        } else {
+            Arrays.fill(bits, 0);
         }
         currentState = BitsState.NORMAL;
     }
@@ -145,6 +170,7 @@ public class Bits {
 
     protected void internalReset() {
         bits = null;
+        shared = false;
         currentState = BitsState.UNKNOWN;
     }
 
@@ -154,39 +180,35 @@ public class Bits {
 
     public Bits assign(Bits someBits) {
         bits = someBits.dup().bits;
+        shared = true;
         currentState = BitsState.NORMAL;
         return this;
     }
 
-    /** Return a copy of this set.
+    /** Return a copy of this set. The copy shares the words of this set
+     *  until either of them is changed.
      */
     public Bits dup() {
         Assert.check(currentState != BitsState.UNKNOWN);
         Bits tmp = new Bits();
-        tmp.bits = dupBits();
+        tmp.bits = bits;
+        tmp.shared = true;
+        shared = true;
         currentState = BitsState.NORMAL;
         return tmp;
     }
 
-    protected int[] dupBits() {
-        int [] result;
-        if (currentState != BitsState.NORMAL) {
-            result = bits;
-        } else {
-            result = new int[bits.length];
-            System.arraycopy(bits, 0, result, 0, bits.length);
-        }
-        return result;
-    }
-
     /** Include x in this set.
      */
     public void incl(int x) {
         Assert.check(currentState != BitsState.UNKNOWN);
         Assert.check(x >= 0);
-        sizeTo((x >>> wordshift) + 1);
-        bits[x >>> wordshift] = bits[x >>> wordshift] |
-            (1 << (x & wordmask));
+        int w = x >>> wordshift;
+        int mask = 1 << (x & wordmask);
+        if (w >= bits.length || (bits[w] & mask) == 0) {
+            sizeTo(w + 1);
+            bits[w] |= mask;
+        }
         currentState = BitsState.NORMAL;
     }
 
@@ -196,9 +218,18 @@ public class Bits {
     public void inclRange(int start, int limit) {
         Assert.check(currentState != BitsState.UNKNOWN);
         sizeTo((limit >>> wordshift) + 1);
-        for (int x = start; x < limit; x++) {
-            bits[x >>> wordshift] = bits[x >>> wordshift] |
-                (1 << (x & wordmask));
+        if (start < limit) {
+            int first = start >>> wordshift;
+            int last = (limit - 1) >>> wordshift;
+            int firstMask = -1 << (start & wordmask);
+            int lastMask = -1 >>> (wordmask - ((limit - 1) & wordmask));
+            if (first == last) {
+                bits[first] |= firstMask & lastMask;
+            } else {
+                bits[first] |= firstMask;
+                Arrays.fill(bits, first + 1, last, -1);
+                bits[last] |= lastMask;
+            }
         }
         currentState = BitsState.NORMAL;
     }
@@ -207,10 +238,14 @@ public class Bits {
      */
     public void excludeFrom(int start) {
         Assert.check(currentState != BitsState.UNKNOWN);
-        Bits temp = new Bits();
-        temp.sizeTo(bits.length);
-        temp.inclRange(0, start);
-        internalAndSet(temp);
+        int w = start >>> wordshift;
+        if (w >= bits.length) {
+            sizeTo(w + 1);
+        } else if (nextBit(start) >= 0) {
+            sizeTo(0);
+            bits[w] &= (1 << (start & wordmask)) - 1;
+            Arrays.fill(bits, w + 1, bits.length, 0);
+        }
         currentState = BitsState.NORMAL;
     }
 
@@ -219,9 +254,14 @@ public class Bits {
     public void excl(int x) {
         Assert.check(currentState != BitsState.UNKNOWN);
         Assert.check(x >= 0);
-        sizeTo((x >>> wordshift) + 1);
-        bits[x >>> wordshift] = bits[x >>> wordshift] &
-            ~(1 << (x & wordmask));
+        int w = x >>> wordshift;
+        int mask = 1 << (x & wordmask);
+        if (w >= bits.length) {
+            sizeTo(w + 1);
+        } else if ((bits[w] & mask) != 0) {
+            sizeTo(0);
+            bits[w] &= ~mask;
+        }
         currentState = BitsState.NORMAL;
     }
 
@@ -245,9 +285,21 @@ public class Bits {
 
     protected void internalAndSet(Bits xs) {
         Assert.check(currentState != BitsState.UNKNOWN);
-        sizeTo(xs.bits.length);
-        for (int i = 0; i < xs.bits.length; i++) {
-            bits[i] = bits[i] & xs.bits[i];
+        int[] other = xs.bits;
+        if (other == bits) {
+            return;
+        }
+        int n = Math.min(bits.length, other.length);
+        int i = 0;
+        while (i < n && (bits[i] & other[i]) == bits[i]) {
+            i++;
+        }
+        if (i == n && bits.length >= other.length) {
+            return;
+        }
+        sizeTo(other.length);
+        for (; i < other.length; i++) {
+            bits[i] = bits[i] & other[i];
         }
     }
 
@@ -255,9 +307,19 @@ public class Bits {
      */
     public Bits orSet(Bits xs) {
         Assert.check(currentState != BitsState.UNKNOWN);
-        sizeTo(xs.bits.length);
-        for (int i = 0; i < xs.bits.length; i++) {
-            bits[i] = bits[i] | xs.bits[i];
+        int[] other = xs.bits;
+        if (other != bits) {
+            int n = Math.min(bits.length, other.length);
+            int i = 0;
+            while (i < n && (bits[i] | other[i]) == bits[i]) {
+                i++;
+            }
+            if (i < other.length) {
+                sizeTo(other.length);
+                for (; i < other.length; i++) {
+                    bits[i] = bits[i] | other[i];
+                }
+            }
         }
         currentState = BitsState.NORMAL;
         return this;
@@ -267,9 +329,16 @@ public class Bits {
      */
     public Bits diffSet(Bits xs) {
         Assert.check(currentState != BitsState.UNKNOWN);
-        for (int i = 0; i < bits.length; i++) {
-            if (i < xs.bits.length) {
-                bits[i] = bits[i] & ~xs.bits[i];
+        int[] other = xs.bits;
+        int n = Math.min(bits.length, other.length);
+        int i = 0;
+        while (i < n && (bits[i] & other[i]) == 0) {
+            i++;
+        }
+        if (i < n) {
+            sizeTo(0);
+            for (; i < n; i++) {
+                bits[i] = bits[i] & ~other[i];
             }
         }
         currentState = BitsState.NORMAL;
@@ -280,30 +349,15 @@ public class Bits {
      */
     public Bits xorSet(Bits xs) {
         Assert.check(currentState != BitsState.UNKNOWN);
-        sizeTo(xs.bits.length);
-        for (int i = 0; i < xs.bits.length; i++) {
-            bits[i] = bits[i] ^ xs.bits[i];
+        int[] other = xs.bits;
+        sizeTo(other.length);
+        for (int i = 0; i < other.length; i++) {
+            bits[i] = bits[i] ^ other[i];
         }
         currentState = BitsState.NORMAL;
         return this;
     }
 
-    /** Count trailing zero bits in an int. Algorithm from "Hacker's
-     *  Delight" by Henry S. Warren Jr. (figure 5-13)
-     */
-    private static int trailingZeroBits(int x) {
-        Assert.check(wordlen == 32);
-        if (x == 0) {
-            return 32;
-        }
-        int n = 1;
-        if ((x & 0xffff) == 0) { n += 16; x >>>= 16; }
-        if ((x & 0x00ff) == 0) { n +=  8; x >>>=  8; }
-        if ((x & 0x000f) == 0) { n +=  4; x >>>=  4; }
-        if ((x & 0x0003) == 0) { n +=  2; x >>>=  2; }
-        return n - (x&1);
-    }
-
     /** Return the index of the least bit position &ge; x that is set.
      *  If none are set, returns -1.  This provides a nice way to iterate
      *  over the members of a bit set:
@@ -313,14 +367,30 @@ public class Bits {
      */
     public int nextBit(int x) {
         Assert.check(currentState != BitsState.UNKNOWN);
+        return nextBit(x, null);
+    }
+
+    /** Return the index of the least bit position &ge; x that is set in
+     *  this set but not in xs, or -1 if there is none. This is
+     *  {@code new Bits(this).diffSet(xs).nextBit(x)}, without the copy.
+     */
+    public int nextBitNotIn(Bits xs, int x) {
+        Assert.check(currentState != BitsState.UNKNOWN);
+        return nextBit(x, xs.bits);
+    }
+
+    private int nextBit(int x, int[] excluded) {
         int windex = x >>> wordshift;
         if (windex >= bits.length) {
             return -1;
         }
         int word = bits[windex] & ~((1 << (x & wordmask))-1);
         while (true) {
+            if (excluded != null && windex < excluded.length) {
+                word &= ~excluded[windex];
+            }
             if (word != 0) {
-                return (windex << wordshift) + trailingZeroBits(word);
+                return (windex << wordshift) + Integer.numberOfTrailingZeros(word);
             }
             windex++;
             if (windex >= bits.length) {
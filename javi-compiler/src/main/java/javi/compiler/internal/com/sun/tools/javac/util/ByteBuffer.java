@@ -26,6 +26,7 @@
 package javi.compiler.internal.com.sun.tools.javac.util;
 
 import java.io.*;
+import java.nio.channels.WritableByteChannel;
 
 /** A byte buffer is a flexible array which grows when elements are
  *  appended. There are also methods to append names to byte buffers
@@ -242,4 +243,14 @@ public class ByteBuffer {
     public Name toName(Names names) {
         return names.fromUtf(elems, 0, length);
     }
+
+    /** Write the contents of this buffer to a channel, without copying
+     *  them to an intermediate array.
+     */
+    public void writeTo(WritableByteChannel out) throws IOException {
+        java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap(elems, 0, length);
+        while (bb.hasRemaining()) {
+            out.write(bb);
+        }
+    }
 }
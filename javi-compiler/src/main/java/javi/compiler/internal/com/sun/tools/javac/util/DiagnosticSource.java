@@ -28,6 +28,7 @@ package javi.compiler.internal.com.sun.tools.javac.util;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.nio.CharBuffer;
+import java.util.Arrays;
 import javi.api.tools.JavaFileObject;
 
 import javi.compiler.internal.com.sun.tools.javac.file.JavacFileManager;
@@ -38,6 +39,9 @@ import static javi.compiler.internal.com.sun.tools.javac.util.LayoutCharacters.*
 /**
  * A simple abstraction of a source file, as needed for use in a diagnostic message.
  * Provides access to the line and position in a line for any given character offset.
+ * Lines are found by a binary search in the start positions of the lines of the
+ * file: those of the line map made by the parser, if it is
+ * {@linkplain #setLineMap given}, or else computed when first needed.
  *
  *  <p><b>This is NOT part of any supported API.
  *  If you write code that depends on this, you do so at your own risk.
@@ -137,6 +141,15 @@ public class DiagnosticSource {
         endPosTable = t;
     }
 
+    /** Use the start positions of the lines in a line map of the file,
+     *  such as the one made by the parser, instead of computing them again.
+     */
+    public void setLineMap(Position.LineMap lineMap) {
+        if (lineStarts == null && lineMap instanceof Position.LineMapImpl) {
+            lineStarts = ((Position.LineMapImpl) lineMap).startPosition;
+        }
+    }
+
     /** Find the line in the buffer that contains the current position
      * @param pos      Character offset into the buffer
      */
@@ -151,13 +164,27 @@ public class DiagnosticSource {
 
             if (buf == null) {
                 buf = initBuf(fileObject);
+            }
+
+            if (lineStarts == null) {
+                Position.LineMapImpl lineMap = new Position.LineMapImpl();
+                lineMap.build(buf, bufLen);
+                lineStarts = lineMap.startPosition;
+            }
+
+            int index = Arrays.binarySearch(lineStarts, pos);
+            if (index < 0) {
+                index = -index - 2; // the last line starting before pos
+            }
+            if (index < 0) {
                 lineStart = 0;
                 line = 1;
-            } else if (lineStart > pos) { // messages don't come in order
-                lineStart = 0;
-                line = 1;
+            } else {
+                lineStart = Math.min(lineStarts[index], bufLen);
+                line = index + 1;
             }
 
+            // pos may be past the terminator of the last line
             int bp = lineStart;
             while (bp < bufLen && bp < pos) {
                 switch (buf[bp++]) {
@@ -209,6 +236,9 @@ public class DiagnosticSource {
     /** The length of the content. */
     protected int bufLen;
 
+    /** The start positions of the lines of the file, or null if not yet known. */
+    protected int[] lineStarts;
+
     /** The start of a line found by findLine. */
     protected int lineStart;
 
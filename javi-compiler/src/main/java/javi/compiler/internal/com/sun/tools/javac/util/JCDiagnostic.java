@@ -280,9 +280,14 @@ public class JCDiagnostic implements Diagnostic<JavaFileObject> {
          */
         public JCDiagnostic create(
                 LintCategory lc, Set<DiagnosticFlag> flags, DiagnosticSource source, DiagnosticPosition pos, DiagnosticInfo diagnosticInfo) {
-            return new JCDiagnostic(formatter, normalize(diagnosticInfo), lc, flags, source, pos);
+            return new JCDiagnostic(formatter, diagnosticInfo, this, lc, flags, source, pos);
         }
         //where
+            /** Replace nested fragment keys in the arguments of a diagnostic
+             *  with diagnostics. This is done when the arguments are first
+             *  asked for, as most diagnostics created during speculative
+             *  attribution and overload resolution are discarded unseen.
+             */
             DiagnosticInfo normalize(DiagnosticInfo diagnosticInfo) {
                 //replace all nested FragmentKey with full-blown JCDiagnostic objects
                 return DiagnosticInfo.of(diagnosticInfo.type, diagnosticInfo.prefix, diagnosticInfo.code,
@@ -439,10 +444,14 @@ public class JCDiagnostic implements Diagnostic<JavaFileObject> {
 
     private final DiagnosticSource source;
     private final DiagnosticPosition position;
-    private final DiagnosticInfo diagnosticInfo;
+    private DiagnosticInfo diagnosticInfo;
     private final Set<DiagnosticFlag> flags;
     private final LintCategory lintCategory;
 
+    /** The factory that will normalize the arguments of this diagnostic
+     *  when they are first asked for, or null if this has been done. */
+    private Factory normalizer;
+
     /** source line position (set lazily) */
     private SourcePosition sourcePosition;
 
@@ -596,11 +605,22 @@ public class JCDiagnostic implements Diagnostic<JavaFileObject> {
                        Set<DiagnosticFlag> flags,
                        DiagnosticSource source,
                        DiagnosticPosition pos) {
+        this(formatter, diagnosticInfo, null, lc, flags, source, pos);
+    }
+
+    private JCDiagnostic(DiagnosticFormatter<JCDiagnostic> formatter,
+                       DiagnosticInfo diagnosticInfo,
+                       Factory normalizer,
+                       LintCategory lc,
+                       Set<DiagnosticFlag> flags,
+                       DiagnosticSource source,
+                       DiagnosticPosition pos) {
         if (source == null && pos != null && pos.getPreferredPosition() != Position.NOPOS)
             throw new IllegalArgumentException();
 
         this.defaultFormatter = formatter;
         this.diagnosticInfo = diagnosticInfo;
+        this.normalizer = normalizer;
         this.lintCategory = lc;
         this.flags = flags;
         this.source = source;
@@ -729,6 +749,10 @@ public class JCDiagnostic implements Diagnostic<JavaFileObject> {
      * @return  the arguments to be included in the text of the diagnostic
      */
     public Object[] getArgs() {
+        if (normalizer != null) {
+            diagnosticInfo = normalizer.normalize(diagnosticInfo);
+            normalizer = null;
+        }
         return diagnosticInfo.args;
     }
 
@@ -814,6 +838,7 @@ public class JCDiagnostic implements Diagnostic<JavaFileObject> {
         public MultilineDiagnostic(JCDiagnostic other, List<JCDiagnostic> subdiagnostics) {
             super(other.defaultFormatter,
                   other.diagnosticInfo,
+                  other.normalizer,
                   other.getLintCategory(),
                   other.flags,
                   other.getDiagnosticSource(),
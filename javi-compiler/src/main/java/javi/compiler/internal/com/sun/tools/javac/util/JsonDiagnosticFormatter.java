@@ -0,0 +1,86 @@
+package javi.compiler.internal.com.sun.tools.javac.util;
+
+import java.util.Locale;
+
+import javi.api.tools.JavaFileObject;
+
+import javi.compiler.internal.com.sun.tools.javac.api.DiagnosticFormatter;
+
+/**
+ * A formatter writing each diagnostic as a JSON object on a single line, for
+ * build tools reading the compiler output. It is used when
+ * {@code -XDjsonDiagnostics} is given. An object has the members
+ * <pre>
+ *   kind      "error", "warning", "mandatory_warning", "note" or "other"
+ *   code      the key of the message, such as "compiler.err.cant.resolve"
+ *   file      the name of the source file, if any
+ *   line      the one-based line number, if the diagnostic has a position
+ *   column    the one-based column number, if the diagnostic has a position
+ *   message   the localized message, without the source line
+ * </pre>
+ * in this order. Lines of the output that do not start with {@code {"kind":},
+ * such as the error count, are not diagnostics.
+ *
+ * <p><b>This is NOT part of any supported API.
+ * If you write code that depends on this, you do so at your own risk.
+ * This code and its internal interfaces are subject to change or
+ * deletion without notice.</b>
+ */
+public class JsonDiagnosticFormatter
+        extends ForwardingDiagnosticFormatter<JCDiagnostic, DiagnosticFormatter<JCDiagnostic>> {
+
+    /**
+     * Create a formatter taking the messages of diagnostics from the given formatter.
+     */
+    public JsonDiagnosticFormatter(DiagnosticFormatter<JCDiagnostic> formatter) {
+        super(formatter);
+    }
+
+    @Override
+    public String format(JCDiagnostic diag, Locale l) {
+        StringBuilder buf = new StringBuilder(128);
+        buf.append("{\"kind\":");
+        appendString(buf, StringUtils.toLowerCase(diag.getKind().name()));
+        buf.append(",\"code\":");
+        appendString(buf, diag.getCode());
+        JavaFileObject source = diag.getSource();
+        if (source != null) {
+            buf.append(",\"file\":");
+            appendString(buf, source.getName());
+        }
+        if (diag.getPosition() != Position.NOPOS) {
+            buf.append(",\"line\":").append(diag.getLineNumber());
+            buf.append(",\"column\":").append(diag.getColumnNumber());
+        }
+        buf.append(",\"message\":");
+        appendString(buf, formatter.formatMessage(diag, l));
+        buf.append('}');
+        return buf.toString();
+    }
+
+    @Override
+    public boolean displaySource(JCDiagnostic diag) {
+        return false;
+    }
+
+    private static void appendString(StringBuilder buf, String s) {
+        buf.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  buf.append("\\\""); break;
+                case '\\': buf.append("\\\\"); break;
+                case '\n': buf.append("\\n"); break;
+                case '\r': buf.append("\\r"); break;
+                case '\t': buf.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        buf.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buf.append(c);
+                    }
+            }
+        }
+        buf.append('"');
+    }
+}
@@ -379,6 +379,8 @@ public class Log extends AbstractLog {
             boolean rawDiagnostics = options.isSet("rawDiagnostics");
             this.diagFormatter = rawDiagnostics ? new RawDiagnosticFormatter(options) :
                                                   new BasicDiagnosticFormatter(options, messages);
+            if (options.isSet("jsonDiagnostics"))
+                this.diagFormatter = new JsonDiagnosticFormatter(diagFormatter);
 
             String ek = options.get("expectKeys");
             if (ek != null)
@@ -446,6 +448,11 @@ public class Log extends AbstractLog {
         getSource(name).setEndPosTable(endPosTable);
     }
 
+    public void setLineMap(JavaFileObject name, Position.LineMap lineMap) {
+        Assert.checkNonNull(name);
+        getSource(name).setLineMap(lineMap);
+    }
+
     /** Return current sourcefile.
      */
     public JavaFileObject currentSourceFile() {
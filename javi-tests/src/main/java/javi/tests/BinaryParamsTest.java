@@ -0,0 +1,123 @@
+package javi.tests;
+
+import javi.api.lang.model.element.ElementKind;
+import javi.api.lang.model.element.TypeElement;
+import javi.api.tools.*;
+import javi.compiler.internal.com.sun.source.util.JavacTask;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.ClassSymbol;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.MethodSymbol;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.VarSymbol;
+import javi.compiler.internal.com.sun.tools.javac.util.List;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Checks that the parameter symbols of methods read from class files are only created when asked for.
+ */
+public class BinaryParamsTest {
+    @Test
+    public void testParamsCreatedOnDemand() throws Exception {
+        Path dir = Files.createTempDirectory("binary-params");
+        Path lib = dir.resolve("Lib.java");
+        Files.writeString(lib, "public class Lib {\n    public void unnamed(int count, String text) {}\n}\n");
+        compile(dir, java.util.List.of("-d", dir.toString()), lib);
+
+        analyze(dir, false, task -> {
+            MethodSymbol unnamed = method(task, "Lib", "unnamed");
+            if (unnamed.params != null) {
+                throw new IllegalArgumentException("parameters of a binary method created eagerly: " + unnamed.params);
+            }
+
+            List<VarSymbol> params = unnamed.params();
+            if (params.size() != 2 || !params.head.name.contentEquals("arg0") || !params.tail.head.name.contentEquals("arg1")) {
+                throw new IllegalArgumentException("unexpected parameters: " + params);
+            }
+            if (unnamed.params != params || unnamed.paramsOrNull() != params) {
+                throw new IllegalArgumentException("parameters created again");
+            }
+        });
+    }
+
+    @Test
+    public void testNamedParamsReadEagerly() throws Exception {
+        Path dir = Files.createTempDirectory("binary-params");
+        Path lib = dir.resolve("Lib.java");
+        Files.writeString(lib, "public class Lib {\n    public void named(int count, String text) {}\n}\n");
+        compile(dir, java.util.List.of("-parameters", "-d", dir.toString()), lib);
+
+        // names are only read with -parameters
+        analyze(dir, true, task -> {
+            MethodSymbol named = method(task, "Lib", "named");
+            if (named.params == null || !named.params.head.name.contentEquals("count")) {
+                throw new IllegalArgumentException("parameter names of MethodParameters not read: " + named.params);
+            }
+        });
+    }
+
+    @Test
+    public void testParamsOrNullOfSourceMethod() throws Exception {
+        Path dir = Files.createTempDirectory("binary-params");
+
+        analyze(dir, false, task -> {
+            ClassSymbol use = (ClassSymbol) task.getElements().getTypeElement("Use");
+            MethodSymbol method = new MethodSymbol(0, use.name.table.fromString("m"), method(task, "Use", "m").type, use);
+            // a method of a source class without parameters is not given any
+            if (method.paramsOrNull() != null) {
+                throw new IllegalArgumentException("parameters created for a source method: " + method.params);
+            }
+        });
+    }
+
+    private interface Check {
+        void check(JavacTask task) throws Exception;
+    }
+
+    /**
+     * Analyze a source class next to Lib, with the given directory as class path, and run the check.
+     */
+    private static void analyze(Path dir, boolean parameters, Check check) throws Exception {
+        Path source = dir.resolve("src/Use.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "class Use {\n    void m(int i) {}\n}\n");
+
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        try {
+            java.util.List<String> options = parameters
+                    ? java.util.List.of("-proc:none", "-parameters", "-classpath", dir.toString())
+                    : java.util.List.of("-proc:none", "-classpath", dir.toString());
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, null, options,
+                    null, fileManager.getJavaFileObjectsFromPaths(java.util.List.of(source)));
+            task.analyze();
+            check.check(task);
+        }
+        finally {
+            fileManager.close();
+        }
+    }
+
+    private static MethodSymbol method(JavacTask task, String className, String methodName) {
+        TypeElement type = task.getElements().getTypeElement(className);
+        return (MethodSymbol) type.getEnclosedElements().stream()
+                .filter(e -> e.getKind() == ElementKind.METHOD && e.getSimpleName().contentEquals(methodName))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void compile(Path dir, java.util.List<String> options, Path source) throws IOException {
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        try {
+            if (!compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromPaths(java.util.List.of(source))).call()) {
+                throw new IllegalArgumentException("compilation of " + source + " failed");
+            }
+        }
+        finally {
+            fileManager.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package javi.tests;
+
+import javi.api.tools.*;
+import javi.compiler.internal.com.sun.tools.javac.util.Bits;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks the copy-on-write {@link Bits} against the copying implementation it replaced,
+ * and definite assignment in methods with more locals than fit in one word.
+ */
+public class BitsTest {
+    private static final int SETS = 4;
+
+    private static final int MAX_BIT = 200;
+
+    @Test
+    public void testSameAsCopyingBits() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            Bits[] sets = new Bits[SETS];
+            CopyingBits[] expected = new CopyingBits[SETS];
+            for (int i = 0; i < SETS; i++) {
+                sets[i] = new Bits();
+                expected[i] = new CopyingBits();
+            }
+
+            List<String> ops = new ArrayList<>();
+            for (int step = 0; step < 100; step++) {
+                int a = random.nextInt(SETS);
+                int b = random.nextInt(SETS);
+                int x = random.nextInt(MAX_BIT);
+                int y = random.nextInt(MAX_BIT);
+                switch (random.nextInt(12)) {
+                    case 0:
+                        sets[a].incl(x);
+                        expected[a].incl(x);
+                        ops.add(a + ".incl(" + x + ")");
+                        break;
+                    case 1:
+                        sets[a].excl(x);
+                        expected[a].excl(x);
+                        ops.add(a + ".excl(" + x + ")");
+                        break;
+                    case 2:
+                        sets[a].inclRange(Math.min(x, y), Math.max(x, y));
+                        expected[a].inclRange(Math.min(x, y), Math.max(x, y));
+                        ops.add(a + ".inclRange(" + Math.min(x, y) + ", " + Math.max(x, y) + ")");
+                        break;
+                    case 3:
+                        sets[a].excludeFrom(x);
+                        expected[a].excludeFrom(x);
+                        ops.add(a + ".excludeFrom(" + x + ")");
+                        break;
+                    case 4:
+                        sets[a].andSet(sets[b]);
+                        expected[a].andSet(expected[b]);
+                        ops.add(a + ".andSet(" + b + ")");
+                        break;
+                    case 5:
+                        sets[a].orSet(sets[b]);
+                        expected[a].orSet(expected[b]);
+                        ops.add(a + ".orSet(" + b + ")");
+                        break;
+                    case 6:
+                        sets[a].diffSet(sets[b]);
+                        expected[a].diffSet(expected[b]);
+                        ops.add(a + ".diffSet(" + b + ")");
+                        break;
+                    case 7:
+                        sets[a].xorSet(sets[b]);
+                        expected[a].xorSet(expected[b]);
+                        ops.add(a + ".xorSet(" + b + ")");
+                        break;
+                    case 8:
+                        sets[a].assign(sets[b]);
+                        expected[a].assign(expected[b]);
+                        ops.add(a + ".assign(" + b + ")");
+                        break;
+                    case 9:
+                        sets[a] = sets[b].dup();
+                        expected[a] = expected[b].dup();
+                        ops.add(a + " = " + b + ".dup()");
+                        break;
+                    case 10:
+                        sets[a] = new Bits(sets[b]);
+                        expected[a] = expected[b].dup();
+                        ops.add(a + " = new Bits(" + b + ")");
+                        break;
+                    default:
+                        sets[a].clear();
+                        expected[a].clear();
+                        ops.add(a + ".clear()");
+                        break;
+                }
+
+                for (int i = 0; i < SETS; i++) {
+                    // the string shows every word of a set, so it also compares their lengths
+                    if (!sets[i].toString().equals(expected[i].toString())) {
+                        throw new IllegalArgumentException("set " + i + " differs after " + ops + ":\n"
+                                + sets[i] + "\n" + expected[i]);
+                    }
+                    int next = sets[i].nextBitNotIn(sets[(i + 1) % SETS], x);
+                    int expectedNext = expected[i].dup().diffSet(expected[(i + 1) % SETS]).nextBit(x);
+                    if (next != expectedNext) {
+                        throw new IllegalArgumentException("nextBitNotIn of set " + i + " is " + next
+                                + " instead of " + expectedNext + " after " + ops);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnassignedAfterManyLocals() throws Exception {
+        StringBuilder source = new StringBuilder("class ManyLocals {\n    void use(int i) {}\n    void m(boolean c) {\n");
+        for (int i = 0; i < 40; i++) {
+            source.append("        int a").append(i).append(";\n");
+        }
+        source.append("        int x;\n        if (c) {} else { x = 1; }\n        use(x);\n    }\n}\n");
+
+        Path dir = Files.createTempDirectory("many-locals");
+        Path file = dir.resolve("ManyLocals.java");
+        Files.writeString(file, source);
+
+        List<String> errors = new ArrayList<>();
+        DiagnosticListener<JavaFileObject> listener = diagnostic -> {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getCode());
+            }
+        };
+
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        try {
+            compiler.getTask(null, fileManager, listener, List.of("-d", dir.toString()), null,
+                    fileManager.getJavaFileObjectsFromPaths(List.of(file))).call();
+        }
+        finally {
+            fileManager.close();
+        }
+
+        if (!errors.equals(List.of("compiler.err.var.might.not.have.been.initialized"))) {
+            throw new IllegalArgumentException("unexpected errors: " + errors);
+        }
+    }
+
+    /**
+     * The set operations as they were before copies were shared, growing the words the same way.
+     */
+    private static class CopyingBits {
+        private int[] bits = new int[0];
+
+        private void sizeTo(int len) {
+            if (bits.length < len) {
+                bits = Arrays.copyOf(bits, len);
+            }
+        }
+
+        CopyingBits dup() {
+            CopyingBits copy = new CopyingBits();
+            copy.bits = bits.clone();
+            return copy;
+        }
+
+        void assign(CopyingBits xs) {
+            bits = xs.bits.clone();
+        }
+
+        void clear() {
+            Arrays.fill(bits, 0);
+        }
+
+        void incl(int x) {
+            sizeTo((x >>> 5) + 1);
+            bits[x >>> 5] |= 1 << (x & 31);
+        }
+
+        void inclRange(int start, int limit) {
+            sizeTo((limit >>> 5) + 1);
+            for (int x = start; x < limit; x++) {
+                bits[x >>> 5] |= 1 << (x & 31);
+            }
+        }
+
+        void excludeFrom(int start) {
+            CopyingBits temp = new CopyingBits();
+            temp.sizeTo(bits.length);
+            temp.inclRange(0, start);
+            andSet(temp);
+        }
+
+        void excl(int x) {
+            sizeTo((x >>> 5) + 1);
+            bits[x >>> 5] &= ~(1 << (x & 31));
+        }
+
+        void andSet(CopyingBits xs) {
+            sizeTo(xs.bits.length);
+            for (int i = 0; i < xs.bits.length; i++) {
+                bits[i] &= xs.bits[i];
+            }
+        }
+
+        void orSet(CopyingBits xs) {
+            sizeTo(xs.bits.length);
+            for (int i = 0; i < xs.bits.length; i++) {
+                bits[i] |= xs.bits[i];
+            }
+        }
+
+        CopyingBits diffSet(CopyingBits xs) {
+            for (int i = 0; i < bits.length && i < xs.bits.length; i++) {
+                bits[i] &= ~xs.bits[i];
+            }
+            return this;
+        }
+
+        void xorSet(CopyingBits xs) {
+            sizeTo(xs.bits.length);
+            for (int i = 0; i < xs.bits.length; i++) {
+                bits[i] ^= xs.bits[i];
+            }
+        }
+
+        int nextBit(int x) {
+            for (int i = x; i < bits.length * 32; i++) {
+                if ((bits[i >>> 5] & (1 << (i & 31))) != 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            if (bits.length == 0) {
+                return "[]";
+            }
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < bits.length * 32; i++) {
+                builder.append((bits[i >>> 5] & (1 << (i & 31))) != 0 ? '1' : '0');
+            }
+            return builder.toString();
+        }
+    }
+}
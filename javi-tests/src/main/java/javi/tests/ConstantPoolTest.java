@@ -0,0 +1,118 @@
+package javi.tests;
+
+import javi.api.tools.*;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks that the constant pool of a class with many constants, and with constants of equal hash codes,
+ * gives every constant one entry and the right index.
+ */
+public class ConstantPoolTest {
+    @Test
+    public void testCollidingStrings() throws Exception {
+        // "Aa" and "BB" have the same hash code, so all strings made of them do too
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        for (int i = 0; i < 10; i++) {
+            List<String> longer = new ArrayList<>();
+            for (String s : strings) {
+                longer.add(s + "Aa");
+                longer.add(s + "BB");
+            }
+            strings = longer;
+        }
+
+        List<String> literals = new ArrayList<>();
+        for (String s : strings) {
+            literals.add('"' + s + '"');
+        }
+        check(literals, strings.toArray());
+    }
+
+    @Test
+    public void testManyConstants() throws Exception {
+        // several times the initial table size, with longs and doubles of equal hash codes mixed in
+        List<String> literals = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int n = 100_000 + i * 0x10000;
+            literals.add(Integer.toString(n));
+            values.add(n);
+            literals.add(n + "L");
+            values.add((long) n);
+            literals.add("\"s" + i + '"');
+            values.add("s" + i);
+            if (i % 3 == 0) {
+                literals.add(n + ".5");
+                values.add(n + 0.5);
+            }
+        }
+        check(literals, values.toArray());
+    }
+
+    /**
+     * Compile a class whose method returns the given literals, each written twice, and check that the pool
+     * has the same number of entries as with each literal once and that the method returns the expected values.
+     */
+    private static void check(List<String> literals, Object[] expected) throws Exception {
+        Path once = compile(literals, 1);
+        Path twice = compile(literals, 2);
+
+        int onceCount = new ClassReader(Files.readAllBytes(once.resolve("Constants.class"))).getItemCount();
+        int twiceCount = new ClassReader(Files.readAllBytes(twice.resolve("Constants.class"))).getItemCount();
+        if (onceCount != twiceCount) {
+            throw new IllegalArgumentException("constants entered again: " + onceCount + " pool entries with each literal once, " + twiceCount + " with each twice");
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{twice.toUri().toURL()}, null)) {
+            Method values = loader.loadClass("Constants").getMethod("values");
+            Object[] actual = (Object[]) values.invoke(null);
+            Object[] doubled = new Object[expected.length * 2];
+            System.arraycopy(expected, 0, doubled, 0, expected.length);
+            System.arraycopy(expected, 0, doubled, expected.length, expected.length);
+            if (!Arrays.equals(actual, doubled)) {
+                throw new IllegalArgumentException("unexpected values: " + Arrays.toString(actual));
+            }
+        }
+    }
+
+    private static Path compile(List<String> literals, int times) throws Exception {
+        // one statement per literal, so the method stays below the code size limit
+        StringBuilder source = new StringBuilder("public class Constants {\n    public static Object[] values() {\n");
+        source.append("        Object[] values = new Object[").append(literals.size() * times).append("];\n");
+        source.append("        int i = 0;\n");
+        for (int t = 0; t < times; t++) {
+            for (String literal : literals) {
+                source.append("        values[i++] = ").append(literal).append(";\n");
+            }
+        }
+        source.append("        return values;\n    }\n}\n");
+
+        Path dir = Files.createTempDirectory("constant-pool");
+        Path file = dir.resolve("Constants.java");
+        Files.writeString(file, source);
+
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        try {
+            if (!compiler.getTask(null, fileManager, null, List.of("-d", dir.toString()), null, fileManager.getJavaFileObjectsFromPaths(List.of(file))).call()) {
+                throw new IllegalArgumentException("compilation of " + file + " failed");
+            }
+        }
+        finally {
+            fileManager.close();
+        }
+        return dir;
+    }
+}
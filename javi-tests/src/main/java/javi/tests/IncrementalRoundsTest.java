@@ -0,0 +1,125 @@
+package javi.tests;
+
+import javi.api.annotation.processing.AbstractProcessor;
+import javi.api.annotation.processing.RoundEnvironment;
+import javi.api.annotation.processing.SupportedAnnotationTypes;
+import javi.api.lang.model.SourceVersion;
+import javi.api.lang.model.element.TypeElement;
+import javi.api.tools.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Checks that {@code -XDincrementalRounds} compiles the same programs as entering all files again in each round.
+ */
+public class IncrementalRoundsTest {
+    @Test
+    public void testGeneratedClassShadowsStarImport() throws Exception {
+        // A resolves Helper to q.Helper in the first round; the generated p.Helper must win in the end
+        String output = compile("p.Helper", "package p;\nimport q.*;\nclass A {\n    Helper h;\n    int v() { return h.generated; }\n}\n");
+
+        if (!secondRound(output).endsWith("symbols kept: false")) {
+            throw new IllegalArgumentException("symbols kept although p.Helper shadows q.Helper:\n" + output);
+        }
+    }
+
+    @Test
+    public void testGeneratedClassKeepsSymbols() throws Exception {
+        String output = compile("p.Other", "package p;\nimport q.*;\nclass A {\n    Helper h;\n    int v() { return new Other().generated; }\n}\n");
+
+        if (!secondRound(output).endsWith("symbols kept: true")) {
+            throw new IllegalArgumentException("symbols not kept:\n" + output);
+        }
+    }
+
+    /**
+     * The time line of the round entering the generated class.
+     */
+    private static String secondRound(String output) {
+        return output.lines().filter(line -> line.startsWith("Round 2: set up")).findFirst().orElse("");
+    }
+
+    /**
+     * Compile p.A and q.Helper, generating the given class with an int field {@code generated}, and return the
+     * rounds printed by the compiler.
+     */
+    private static String compile(String generated, String source) throws IOException {
+        Path dir = Files.createTempDirectory("incremental-rounds");
+        Files.createDirectories(dir.resolve("p"));
+        Files.createDirectories(dir.resolve("q"));
+        Path a = dir.resolve("p/A.java");
+        Path helper = dir.resolve("q/Helper.java");
+        Files.writeString(a, source);
+        Files.writeString(helper, "package q;\npublic class Helper {\n}\n");
+
+        StringWriter out = new StringWriter();
+        StringWriter errors = new StringWriter();
+        DiagnosticListener<JavaFileObject> listener = diagnostic -> {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.append(diagnostic.toString()).append('\n');
+            }
+        };
+
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        boolean success;
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(new PrintWriter(out), fileManager, listener,
+                    List.of("-XDincrementalRounds", "-XprintRounds", "-d", dir.toString(), "-s", dir.toString()), null,
+                    fileManager.getJavaFileObjectsFromPaths(List.of(a, helper)));
+            task.setProcessors(List.of(new GeneratingProcessor(generated)));
+            success = task.call();
+        }
+        finally {
+            fileManager.close();
+        }
+
+        if (!success) {
+            throw new IllegalArgumentException("compilation failed:\n" + errors + out);
+        }
+        return out.toString();
+    }
+
+    @SupportedAnnotationTypes("*")
+    private static class GeneratingProcessor extends AbstractProcessor {
+        private final String className;
+
+        private boolean generated;
+
+        GeneratingProcessor(String className) {
+            this.className = className;
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (generated) {
+                return false;
+            }
+            generated = true;
+
+            int dot = className.lastIndexOf('.');
+            try (Writer writer = processingEnv.getFiler().createSourceFile(className).openWriter()) {
+                writer.write("package " + className.substring(0, dot) + ";\nclass " + className.substring(dot + 1)
+                        + " {\n    int generated;\n}\n");
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return false;
+        }
+    }
+}
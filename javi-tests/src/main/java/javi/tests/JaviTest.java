@@ -2,6 +2,7 @@ package javi.tests;
 
 import com.github.marschall.memoryfilesystem.MemoryFileSystemBuilder;
 import javi.api.tools.*;
+import javi.compiler.CompilerPool;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
@@ -13,6 +14,7 @@ import org.objectweb.asm.RecordComponentVisitor;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -79,6 +81,28 @@ public class JaviTest {
         }
     }
 
+    @Test
+    public void testCompilerPoolDiagnostics() throws Exception {
+        Path dir = Files.createTempDirectory("compiler-pool");
+        Path source = dir.resolve("Broken.java");
+        Files.writeString(source, "class Broken { int x = \"s\"; }\n");
+
+        CompilerPool pool = new CompilerPool(1);
+        // the second compilation reuses the context of the first one
+        for (int i = 0; i < 2; i++) {
+            StringWriter out = new StringWriter();
+            int exitCode = pool.compile(new String[]{"-d", dir.toString(), source.toString()}, new PrintWriter(out));
+
+            if (exitCode != 1 || !out.toString().contains("incompatible types")) {
+                throw new IllegalArgumentException("compilation " + i + " did not report the error: " + exitCode + " " + out);
+            }
+        }
+
+        if (pool.getReusedCount() != 1) {
+            throw new IllegalArgumentException("context not reused: " + pool);
+        }
+    }
+
     private Path doTest() throws Exception {
         JavaCompiler javiCompiler = JaviUtil.getJaviCompiler();
 
@@ -0,0 +1,176 @@
+package javi.tests;
+
+import javi.api.tools.*;
+import javi.compiler.internal.com.sun.source.tree.CompilationUnitTree;
+import javi.compiler.internal.com.sun.source.util.JavacTask;
+import javi.compiler.internal.com.sun.tools.javac.code.Symbol.OperatorSymbol;
+import javi.compiler.internal.com.sun.tools.javac.tree.JCTree;
+import javi.compiler.internal.com.sun.tools.javac.tree.TreeScanner;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that operators on every pair of primitive and boxed operands resolve the same whether they are looked up
+ * for the first time or found in the dispatch tables of {@code Operators}.
+ */
+public class OperatorsTest {
+    private static final String[] PRIMITIVES = {"boolean", "byte", "char", "short", "int", "long", "float", "double"};
+
+    private static final String[] BOXES = {"Boolean", "Byte", "Character", "Short", "Integer", "Long", "Float", "Double"};
+
+    private static final String[] BINARY = {"+", "-", "*", "/", "%", "<<", ">>", ">>>", "<", ">", "<=", ">=", "==", "!=", "&", "|", "^", "&&", "||"};
+
+    private static final String[] COMPOUND = {"+=", "-=", "*=", "/=", "%=", "<<=", ">>=", ">>>=", "&=", "|=", "^="};
+
+    private static final String[] PREFIX = {"+", "-", "~", "!", "++", "--"};
+
+    private static final String[] POSTFIX = {"++", "--"};
+
+    @Test
+    public void testSameInAnyOrder() throws Exception {
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                for (String op : BINARY) {
+                    expressions.add("p" + i + " " + op + " p" + j);
+                }
+                for (String op : COMPOUND) {
+                    expressions.add("p" + i + " " + op + " p" + j);
+                }
+            }
+            for (String op : PREFIX) {
+                expressions.add(op + "p" + i);
+            }
+            for (String op : POSTFIX) {
+                expressions.add("p" + i + op);
+            }
+        }
+
+        Map<String, String> forward = resolve(expressions);
+        List<String> reversed = new ArrayList<>(expressions);
+        Collections.reverse(reversed);
+        compare(forward, resolve(reversed), "in reverse order");
+    }
+
+    @Test
+    public void testSameAsTypeVariables() throws Exception {
+        // an operand of a type variable bounded by a box is never entered in the dispatch tables
+        Set<String> expressions = new LinkedHashSet<>();
+        for (int i = 8; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                for (String op : BINARY) {
+                    expressions.add("p" + i + " " + op + " p" + j);
+                    expressions.add("p" + j + " " + op + " p" + i);
+                }
+            }
+            for (String op : PREFIX) {
+                if (!op.equals("++") && !op.equals("--")) {
+                    expressions.add(op + "p" + i);
+                }
+            }
+        }
+
+        Map<String, String> boxes = resolve(new ArrayList<>(expressions));
+        List<String> typeVariables = new ArrayList<>();
+        for (String expression : expressions) {
+            typeVariables.add(expression.replaceAll("p(8|9|1[0-5])\\b", "t$1"));
+        }
+        Map<String, String> bounded = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(boxes.keySet());
+        List<String> values = new ArrayList<>(resolve(typeVariables).values());
+        for (int i = 0; i < keys.size(); i++) {
+            bounded.put(keys.get(i), values.get(i));
+        }
+        compare(boxes, bounded, "with operands of type variables");
+    }
+
+    private static void compare(Map<String, String> expected, Map<String, String> actual, String how) {
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            String other = actual.get(entry.getKey());
+            if (!entry.getValue().equals(other)) {
+                differences.add(entry.getKey() + ": " + entry.getValue() + " / " + other);
+            }
+        }
+        if (!differences.isEmpty()) {
+            throw new IllegalArgumentException(differences.size() + " operators resolved differently " + how + ": " + differences);
+        }
+    }
+
+    /**
+     * Attribute each expression twice, with p0 to p15 of the primitive and box types and t8 to t15 of type variables
+     * bounded by the boxes, and return the operator of each, in the order given.
+     */
+    private static Map<String, String> resolve(List<String> expressions) throws Exception {
+        StringBuilder source = new StringBuilder("class Ops {\n    <");
+        for (int i = 0; i < BOXES.length; i++) {
+            source.append(i == 0 ? "" : ", ").append("T").append(i + 8).append(" extends ").append(BOXES[i]);
+        }
+        source.append("> void m(");
+        for (int i = 0; i < 16; i++) {
+            source.append(i == 0 ? "" : ", ").append(i < 8 ? PRIMITIVES[i] : BOXES[i - 8]).append(" p").append(i);
+        }
+        for (int i = 8; i < 16; i++) {
+            source.append(", T").append(i).append(" t").append(i);
+        }
+        source.append(") {\n");
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < expressions.size(); i++) {
+                source.append("        Object e").append(i).append('_').append(pass).append(" = ").append(expressions.get(i)).append(";\n");
+            }
+        }
+        source.append("    }\n}\n");
+
+        Path dir = Files.createTempDirectory("operators");
+        Path file = dir.resolve("Ops.java");
+        Files.writeString(file, source);
+
+        Map<String, String> first = new LinkedHashMap<>();
+        Map<String, String> second = new LinkedHashMap<>();
+        JavaCompiler compiler = JaviUtil.getJaviCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        try {
+            DiagnosticListener<JavaFileObject> ignoreErrors = diagnostic -> {
+            };
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, ignoreErrors, List.of("-proc:none", "-XDshould-stop.at=FLOW"),
+                    null, fileManager.getJavaFileObjectsFromPaths(List.of(file)));
+            Iterable<? extends CompilationUnitTree> units = task.parse();
+            task.analyze();
+            for (CompilationUnitTree unit : units) {
+                ((JCTree) unit).accept(new TreeScanner() {
+                    @Override
+                    public void visitVarDef(JCTree.JCVariableDecl tree) {
+                        String name = tree.name.toString();
+                        if (name.startsWith("e")) {
+                            int separator = name.indexOf('_');
+                            String expression = expressions.get(Integer.parseInt(name.substring(1, separator)));
+                            OperatorSymbol operator = ((JCTree.JCOperatorExpression) tree.init).operator;
+                            String resolved = operator.name + " " + operator.type + " " + operator.opcode;
+                            (name.endsWith("_0") ? first : second).put(expression, resolved);
+                        }
+                        super.visitVarDef(tree);
+                    }
+                });
+            }
+        }
+        finally {
+            fileManager.close();
+        }
+
+        if (first.size() != expressions.size()) {
+            throw new IllegalArgumentException(first.size() + " operators found for " + expressions.size() + " expressions");
+        }
+        compare(first, second, "when looked up again");
+        return first;
+    }
+}
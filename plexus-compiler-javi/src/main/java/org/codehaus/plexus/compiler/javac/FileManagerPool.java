@@ -0,0 +1,239 @@
+package org.codehaus.plexus.compiler.javac;
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javi.api.tools.Diagnostic;
+import javi.api.tools.DiagnosticListener;
+import javi.api.tools.JavaCompiler;
+import javi.api.tools.JavaFileObject;
+import javi.api.tools.StandardJavaFileManager;
+import javi.compiler.internal.com.sun.tools.javac.file.JavacFileManager;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of standard file managers, shared by the compilations of a build.
+ * <p>
+ * The pool takes no lock, so that the threads of a parallel build never wait for each other:
+ * the file managers are kept in a fixed number of slots, taken and given back atomically.
+ * Each thread starts looking at a slot of its own and only moves on to the others when that
+ * slot is empty or taken, so a thread usually gets back the file manager it used last.
+ * A file manager given back when all the slots are taken is closed.
+ */
+final class FileManagerPool
+{
+    private final AtomicReferenceArray<PooledFileManager> slots;
+
+    private final LongAdder reused = new LongAdder();
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param maxPoolSize maximum number of file managers kept between compilations
+     */
+    FileManagerPool( int maxPoolSize )
+    {
+        this.slots = new AtomicReferenceArray<PooledFileManager>( Math.max( 1, maxPoolSize ) );
+    }
+
+    /**
+     * Take a file manager of the given charset from the pool, or create one with the compiler.
+     * The diagnostics of the file manager are reported to the listener until it is given back.
+     */
+    PooledFileManager acquire( JavaCompiler compiler, Charset charset,
+                               DiagnosticListener<? super JavaFileObject> listener )
+    {
+        int home = homeSlot();
+        for ( int i = 0; i < slots.length(); i++ )
+        {
+            int index = ( home + i ) % slots.length();
+            if ( slots.get( index ) == null )
+            {
+                continue;
+            }
+            PooledFileManager pooled = slots.getAndSet( index, null );
+            if ( pooled == null )
+            {
+                continue;
+            }
+            if ( Objects.equals( pooled.charset, charset ) )
+            {
+                reused.increment();
+                pooled.listener = listener;
+                return pooled;
+            }
+            // a build seldom mixes encodings: make room for the one in use now
+            discard( pooled );
+        }
+
+        created.increment();
+        PooledFileManager pooled = new PooledFileManager( charset );
+        pooled.fileManager = compiler.getStandardFileManager( pooled, null, charset );
+        pooled.listener = listener;
+        return pooled;
+    }
+
+    /**
+     * Give back a file manager after a compilation. Its locations are reset to their defaults,
+     * and it is kept if a slot is free; otherwise it is closed.
+     */
+    void release( PooledFileManager pooled )
+    {
+        pooled.listener = null;
+        if ( !( pooled.fileManager instanceof JavacFileManager ) )
+        {
+            // only the file managers of javi can forget the options of a compilation
+            discard( pooled );
+            return;
+        }
+        try
+        {
+            ( (JavacFileManager) pooled.fileManager ).reset();
+        }
+        catch ( IOException e )
+        {
+            discard( pooled );
+            return;
+        }
+
+        int home = homeSlot();
+        for ( int i = 0; i < slots.length(); i++ )
+        {
+            if ( slots.compareAndSet( ( home + i ) % slots.length(), null, pooled ) )
+            {
+                return;
+            }
+        }
+        discard( pooled );
+    }
+
+    /**
+     * Close a file manager instead of giving it back, such as when its compilation failed
+     * with an exception and left it in an unknown state.
+     */
+    void discard( PooledFileManager pooled )
+    {
+        pooled.listener = null;
+        discarded.increment();
+        try
+        {
+            pooled.fileManager.close();
+        }
+        catch ( IOException e )
+        {
+            // ignore
+        }
+    }
+
+    /**
+     * The slot a thread looks at first; spread over the slots, as thread ids are often consecutive.
+     */
+    private int homeSlot()
+    {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return Math.floorMod( (int) ( id >>> 32 ), slots.length() );
+    }
+
+    /**
+     * @return the number of compilations which reused a file manager from the pool
+     */
+    long getReusedCount()
+    {
+        return reused.sum();
+    }
+
+    /**
+     * @return the number of file managers created, because none in the pool could be reused
+     */
+    long getCreatedCount()
+    {
+        return created.sum();
+    }
+
+    /**
+     * @return the number of file managers closed, because no slot was free or they could not be reused
+     */
+    long getDiscardedCount()
+    {
+        return discarded.sum();
+    }
+
+    /**
+     * @return the number of file managers currently in the pool
+     */
+    int getPooledCount()
+    {
+        int count = 0;
+        for ( int i = 0; i < slots.length(); i++ )
+        {
+            if ( slots.get( i ) != null )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "reused=" + getReusedCount() + ", created=" + getCreatedCount() + ", discarded="
+            + getDiscardedCount() + ", pooled=" + getPooledCount();
+    }
+
+    /**
+     * A file manager of the pool. It reports its diagnostics to the listener of the compilation
+     * using it, which changes each time it is taken from the pool.
+     */
+    static final class PooledFileManager
+        implements DiagnosticListener<JavaFileObject>
+    {
+        private final Charset charset;
+
+        private StandardJavaFileManager fileManager;
+
+        private DiagnosticListener<? super JavaFileObject> listener;
+
+        private PooledFileManager( Charset charset )
+        {
+            this.charset = charset;
+        }
+
+        StandardJavaFileManager getFileManager()
+        {
+            return fileManager;
+        }
+
+        @Override
+        public void report( Diagnostic<? extends JavaFileObject> diagnostic )
+        {
+            DiagnosticListener<? super JavaFileObject> target = listener;
+            if ( target != null )
+            {
+                target.report( diagnostic );
+            }
+        }
+    }
+}
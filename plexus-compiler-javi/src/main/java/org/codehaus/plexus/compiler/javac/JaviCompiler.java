@@ -77,12 +77,29 @@ public class JaviCompiler extends AbstractCompiler
     // see compiler.misc.verbose in compiler.properties of javac sources
     private static final String[] MISC_PREFIXES = { "[" };
 
+    // see JsonDiagnosticFormatter of javi sources, which writes the kind first
+    private static final String JSON_DIAGNOSTIC_START = "{\"kind\":";
+
     private static final Object LOCK = new Object();
 
     private static final String JAVI_CLASSNAME = "javi.compiler.Main";
 
     private static volatile Class<?> JAVAC_CLASS;
 
+    private static final String JAVI_POOL_CLASSNAME = "javi.compiler.CompilerPool";
+
+    /** Maximum number of compiler contexts kept between compilations */
+    private static final int POOL_SIZE = 4;
+
+    /** Marks that the compiler has no pool of contexts */
+    private static final Object NO_POOL = new Object();
+
+    /**
+     * The <code>javi.compiler.CompilerPool</code> of the compiler used with the
+     * {@link CompilerConfiguration.CompilerReuseStrategy#ReuseSame} strategy
+     */
+    private static volatile Object COMPILER_POOL;
+
     private List<Class<?>> javaccClasses = new CopyOnWriteArrayList<Class<?>>();
 
     // ----------------------------------------------------------------------
@@ -153,7 +170,12 @@ public class JaviCompiler extends AbstractCompiler
         }
         else
         {
-            result = inProcessCompiler().compileInProcess(args, config, sourceFiles);
+            InProcessCompiler inProcessCompiler = inProcessCompiler();
+            result = inProcessCompiler.compileInProcess(args, config, sourceFiles);
+            if ( ( getLogger() != null ) && getLogger().isDebugEnabled() )
+            {
+                getLogger().debug( "Compiler reuse: " + inProcessCompiler );
+            }
         }
 
         return result;
@@ -514,7 +536,7 @@ public class JaviCompiler extends AbstractCompiler
 
         try
         {
-            File argumentsFile = createFileWithArguments( args, config.getOutputLocation() );
+            File argumentsFile = createFileWithArguments( withJsonDiagnostics( args ), config.getOutputLocation() );
             cli.addArguments(
                 new String[]{ "@" + argumentsFile.getCanonicalPath().replace( File.separatorChar, '/' ) } );
 
@@ -573,7 +595,7 @@ public class JaviCompiler extends AbstractCompiler
         {
             returnCode = CommandLineUtils.executeCommandLine( cli, out, out );
 
-            messages = parseModernStream( returnCode, new BufferedReader( new StringReader( out.getOutput() ) ) );
+            messages = parseJsonStream( returnCode, new BufferedReader( new StringReader( out.getOutput() ) ) );
         }
         catch ( CommandLineException | IOException e )
         {
@@ -605,6 +627,18 @@ public class JaviCompiler extends AbstractCompiler
         }
         try
         {
+            Object pool = config.getCompilerReuseStrategy() == CompilerConfiguration.CompilerReuseStrategy.ReuseSame
+                ? getCompilerPool( javacClass )
+                : null;
+            if ( pool != null )
+            {
+                CompilerResult result = compileInProcess0( pool, pool.getClass(), args );
+                if ( ( getLogger() != null ) && getLogger().isDebugEnabled() )
+                {
+                    getLogger().debug( "Compiler contexts: " + pool );
+                }
+                return result;
+            }
             return compileInProcessWithProperClassloader(javacClass, args);
         }
         finally
@@ -616,16 +650,50 @@ public class JaviCompiler extends AbstractCompiler
 
     protected CompilerResult compileInProcessWithProperClassloader( Class<?> javacClass, String[] args )
         throws CompilerException {
-      return compileInProcess0(javacClass, args);
+      return compileInProcess0(null, javacClass, args);
+    }
+
+    /**
+     * Find the pool of compiler contexts of the compiler, creating it on first use, so that the
+     * compilations of a build reuse the symbols of the platform classes.
+     *
+     * @return the pool, or null if the compiler has none
+     */
+    private static Object getCompilerPool( Class<?> javacClass )
+    {
+        Object pool = COMPILER_POOL;
+        if ( pool == null )
+        {
+            synchronized ( JaviCompiler.LOCK )
+            {
+                pool = COMPILER_POOL;
+                if ( pool == null )
+                {
+                    try
+                    {
+                        pool = javacClass.getClassLoader().loadClass( JAVI_POOL_CLASSNAME )
+                            .getConstructor( int.class ).newInstance( POOL_SIZE );
+                    }
+                    catch ( ReflectiveOperationException e )
+                    {
+                        pool = NO_POOL;
+                    }
+                    COMPILER_POOL = pool;
+                }
+            }
+        }
+        return pool != NO_POOL ? pool : null;
     }
 
     /**
      * Helper method for compileInProcess()
+     *
+     * @param target the compiler pool, or null to call the static method of <code>javacClass</code>
      */
-    private static CompilerResult compileInProcess0( Class<?> javacClass, String[] args )
+    private static CompilerResult compileInProcess0( Object target, Class<?> javacClass, String[] args )
         throws CompilerException
     {
-        StringWriter out = new StringWriter();
+        DiagnosticStream out = new DiagnosticStream();
 
         Integer ok;
 
@@ -635,9 +703,9 @@ public class JaviCompiler extends AbstractCompiler
         {
             Method compile = javacClass.getMethod( "compile", new Class[]{ String[].class, PrintWriter.class } );
 
-            ok = (Integer) compile.invoke( null, new Object[]{ args, new PrintWriter( out ) } );
+            ok = (Integer) compile.invoke( target, new Object[]{ withJsonDiagnostics( args ), new PrintWriter( out ) } );
 
-            messages = parseModernStream( ok.intValue(), new BufferedReader( new StringReader( out.toString() ) ) );
+            messages = out.getMessages( ok.intValue() );
         }
         catch ( NoSuchMethodException e )
         {
@@ -660,6 +728,140 @@ public class JaviCompiler extends AbstractCompiler
         return new CompilerResult( success, messages );
     }
 
+    /**
+     * Have the compiler write its diagnostics as JSON objects, one per line, as read by
+     * {@link DiagnosticStream}, instead of text meant for people.
+     */
+    private static String[] withJsonDiagnostics( String[] args )
+    {
+        String[] result = new String[args.length + 1];
+        result[0] = "-XDjsonDiagnostics";
+        System.arraycopy( args, 0, result, 1, args.length );
+        return result;
+    }
+
+    /**
+     * Parse the output from the compiler into a list of CompilerMessage objects
+     *
+     * @param exitCode The exit code of javac.
+     * @param input    The output of the compiler, run with <code>-XDjsonDiagnostics</code>
+     * @return List of CompilerMessage objects
+     * @throws IOException
+     */
+    static List<CompilerMessage> parseJsonStream( int exitCode, BufferedReader input )
+        throws IOException
+    {
+        DiagnosticStream stream = new DiagnosticStream();
+
+        String line;
+
+        while ( ( line = input.readLine() ) != null )
+        {
+            stream.processLine( line );
+        }
+
+        return stream.getMessages( exitCode );
+    }
+
+    /**
+     * A writer collecting the messages of the compiler, run with <code>-XDjsonDiagnostics</code>,
+     * as they are written. Each diagnostic is a JSON object on a line of its own, starting with its
+     * kind. The other lines, such as verbose output, errors in the command line, a compiler crash or
+     * a line of source that merely looks like such an object, are read as text by
+     * {@link #parseModernStream(int, BufferedReader)}; so are the diagnostics of a compiler not
+     * knowing the option, which ignores it.
+     */
+    static class DiagnosticStream
+        extends Writer
+    {
+        /** The messages and the blocks of text lines between them, in the order they were written. */
+        private final List<Object> output = new ArrayList<>();
+
+        private final StringBuilder line = new StringBuilder();
+
+        private StringBuilder text;
+
+        @Override
+        public void write( char[] cbuf, int off, int len )
+        {
+            for ( int i = off; i < off + len; i++ )
+            {
+                char c = cbuf[i];
+                if ( c == '\n' )
+                {
+                    processLine( line.toString() );
+                    line.setLength( 0 );
+                }
+                else if ( c != '\r' )
+                {
+                    line.append( c );
+                }
+            }
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+            if ( line.length() > 0 )
+            {
+                processLine( line.toString() );
+                line.setLength( 0 );
+            }
+        }
+
+        void processLine( String line )
+        {
+            CompilerMessage message = null;
+            if ( line.startsWith( JSON_DIAGNOSTIC_START ) && line.endsWith( "}" ) )
+            {
+                message = parseJsonDiagnostic( line );
+            }
+
+            if ( message != null )
+            {
+                text = null;
+                output.add( message );
+            }
+            else
+            {
+                if ( text == null )
+                {
+                    text = new StringBuilder();
+                    output.add( text );
+                }
+                text.append( line ).append( EOL );
+            }
+        }
+
+        /**
+         * @param exitCode The exit code of javac, telling whether text diagnostics without prefix are errors.
+         */
+        List<CompilerMessage> getMessages( int exitCode )
+            throws IOException
+        {
+            close();
+            List<CompilerMessage> messages = new ArrayList<>();
+            for ( Object part : output )
+            {
+                if ( part instanceof CompilerMessage )
+                {
+                    messages.add( (CompilerMessage) part );
+                }
+                else
+                {
+                    messages.addAll(
+                        parseModernStream( exitCode, new BufferedReader( new StringReader( part.toString() ) ) ) );
+                }
+            }
+            return messages;
+        }
+    }
+
     /**
      * Parse the output from the compiler into a list of CompilerMessage objects
      *
@@ -787,6 +989,164 @@ public class JaviCompiler extends AbstractCompiler
         return false;
     }
 
+    /**
+     * Construct a CompilerMessage object from a diagnostic written by the compiler as a JSON object
+     *
+     * @param json the line of the compiler output holding the object
+     * @return the CompilerMessage object, or <code>null</code> if the line is not such an object,
+     *         as when a source line or verbose output happens to look like one
+     */
+    static CompilerMessage parseJsonDiagnostic( String json )
+    {
+        try
+        {
+            Map<String, String> members = parseJsonObject( json );
+
+            CompilerMessage.Kind kind;
+            switch ( String.valueOf( members.get( "kind" ) ) )
+            {
+                case "error":
+                    kind = CompilerMessage.Kind.ERROR;
+                    break;
+                case "warning":
+                    kind = CompilerMessage.Kind.WARNING;
+                    break;
+                case "mandatory_warning":
+                    kind = CompilerMessage.Kind.MANDATORY_WARNING;
+                    break;
+                case "note":
+                    kind = CompilerMessage.Kind.NOTE;
+                    break;
+                default:
+                    kind = CompilerMessage.Kind.OTHER;
+                    break;
+            }
+
+            String message = members.get( "message" );
+            if ( message == null || !members.containsKey( "code" ) )
+            {
+                return null;
+            }
+            String file = members.get( "file" );
+            if ( file == null )
+            {
+                return new CompilerMessage( message, kind );
+            }
+
+            int line = members.containsKey( "line" ) ? Integer.parseInt( members.get( "line" ) ) : 0;
+            int column = members.containsKey( "column" ) ? Integer.parseInt( members.get( "column" ) ) : 0;
+            return new CompilerMessage( file, kind, line, column, line, column, message );
+        }
+        catch ( RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Read the members of a JSON object whose values are strings or numbers, as the compiler writes them.
+     */
+    private static Map<String, String> parseJsonObject( String json )
+    {
+        Map<String, String> members = new HashMap<>();
+
+        int i = skipSpaces( json, json.indexOf( '{' ) + 1 );
+
+        while ( json.charAt( i ) != '}' )
+        {
+            StringBuilder name = new StringBuilder();
+            i = skipSpaces( json, readString( json, i, name ) );
+            if ( json.charAt( i ) != ':' )
+            {
+                throw new IllegalArgumentException( json );
+            }
+            i = skipSpaces( json, i + 1 );
+
+            StringBuilder value = new StringBuilder();
+            if ( json.charAt( i ) == '"' )
+            {
+                i = readString( json, i, value );
+            }
+            else
+            {
+                while ( ",} ".indexOf( json.charAt( i ) ) < 0 )
+                {
+                    value.append( json.charAt( i++ ) );
+                }
+            }
+            members.put( name.toString(), value.toString() );
+
+            i = skipSpaces( json, i );
+            if ( json.charAt( i ) == ',' )
+            {
+                i = skipSpaces( json, i + 1 );
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Read the JSON string starting with the quote at <code>start</code>, and return the index after its end.
+     */
+    private static int readString( String json, int start, StringBuilder out )
+    {
+        if ( json.charAt( start ) != '"' )
+        {
+            throw new IllegalArgumentException( json );
+        }
+        for ( int i = start + 1; ; i++ )
+        {
+            char c = json.charAt( i );
+            if ( c == '"' )
+            {
+                return i + 1;
+            }
+            if ( c == '\\' )
+            {
+                c = json.charAt( ++i );
+                switch ( c )
+                {
+                    case 'n':
+                        out.append( '\n' );
+                        break;
+                    case 'r':
+                        out.append( '\r' );
+                        break;
+                    case 't':
+                        out.append( '\t' );
+                        break;
+                    case 'b':
+                        out.append( '\b' );
+                        break;
+                    case 'f':
+                        out.append( '\f' );
+                        break;
+                    case 'u':
+                        out.append( (char) Integer.parseInt( json.substring( i + 1, i + 5 ), 16 ) );
+                        i += 4;
+                        break;
+                    default:
+                        out.append( c );
+                        break;
+                }
+            }
+            else
+            {
+                out.append( c );
+            }
+        }
+    }
+
+    private static int skipSpaces( String json, int i )
+    {
+        while ( json.charAt( i ) == ' ' )
+        {
+            i++;
+        }
+        return i;
+    }
+
     /**
      * Construct a CompilerMessage object from a line of the compiler output
      *
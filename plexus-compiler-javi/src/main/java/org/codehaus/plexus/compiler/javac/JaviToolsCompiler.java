@@ -19,6 +19,7 @@ package org.codehaus.plexus.compiler.javac;
  */
 
 import javi.api.tools.*;
+import javi.compiler.internal.com.sun.tools.javac.api.JavacTaskPool;
 import org.codehaus.plexus.compiler.Compiler;
 import org.codehaus.plexus.compiler.CompilerConfiguration;
 import org.codehaus.plexus.compiler.CompilerMessage;
@@ -28,8 +29,9 @@ import org.codehaus.plexus.component.annotations.Component;
 
 
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Olivier Lamy
@@ -40,7 +42,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class JaviToolsCompiler implements InProcessCompiler
 {
     /**
-     * is that thread safe ???
+     * The compiler used by the strategies reusing compilers. It keeps no state between tasks, each
+     * of them having a context of its own, so it is safe to share between the threads of a parallel
+     * build; what is worth reusing is kept by the pools below.
      */
     @SuppressWarnings( "restriction" )
     private final JavaCompiler COMPILER = newJavaCompiler();
@@ -53,136 +57,165 @@ public class JaviToolsCompiler implements InProcessCompiler
         throw new UnsupportedOperationException("can't find compiler");
     }
 
-    private List<JavaCompiler> JAVA_COMPILERS = new CopyOnWriteArrayList<>();
+    /**
+     * The file managers shared by the compilations reusing created compilers, enough for each
+     * thread of a parallel build such as <code>-T 2C</code> to keep one.
+     */
+    private static final FileManagerPool FILE_MANAGER_POOL =
+        new FileManagerPool( Math.max( 8, 2 * Runtime.getRuntime().availableProcessors() ) );
+
+    /**
+     * The compiler contexts shared by the compilations reusing the same compiler. A context keeps
+     * the symbols of the platform classes between compilations, so that they are only read once
+     * in a build, whatever the class path of each project.
+     */
+    private static final JavacTaskPool TASK_POOL = new JavacTaskPool( 4 );
 
-    private JavaCompiler getJavaCompiler( CompilerConfiguration compilerConfiguration )
+    public CompilerResult compileInProcess( String[] args, final CompilerConfiguration config, String[] sourceFiles )
+        throws CompilerException
     {
-        switch ( compilerConfiguration.getCompilerReuseStrategy() )
+        CompilerConfiguration.CompilerReuseStrategy strategy = config.getCompilerReuseStrategy();
+        JavaCompiler compiler =
+            strategy == CompilerConfiguration.CompilerReuseStrategy.AlwaysNew ? newJavaCompiler() : COMPILER;
+        if ( compiler == null )
         {
-            case AlwaysNew:
-                return newJavaCompiler();
-            case ReuseCreated:
-                JavaCompiler javaCompiler;
-                synchronized ( JAVA_COMPILERS )
-                {
-                    if ( JAVA_COMPILERS.size() > 0 )
+            CompilerMessage message = new CompilerMessage( "No compiler is provided in this environment. "
+                                                               + "Perhaps you are running on a JRE rather than a JDK?",
+                                                           CompilerMessage.Kind.ERROR );
+            return new CompilerResult( false, Collections.singletonList( message ) );
+        }
+        final DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<JavaFileObject>();
+        final String sourceEncoding = config.getSourceEncoding();
+        final Charset sourceCharset = sourceEncoding == null ? null : Charset.forName( sourceEncoding );
+        try
+        {
+            switch ( strategy )
+            {
+                case AlwaysNew:
+                    try ( final StandardJavaFileManager standardFileManager =
+                        compiler.getStandardFileManager( collector, null, sourceCharset ) )
                     {
-                        javaCompiler = JAVA_COMPILERS.get( 0 );
-                        JAVA_COMPILERS.remove( javaCompiler );
-                        return javaCompiler;
+                        return compile( compiler, standardFileManager, collector, args, sourceFiles );
                     }
-                }
-                javaCompiler = newJavaCompiler();
-                return javaCompiler;
-            case ReuseSame:
-            default:
-                return COMPILER;
+                case ReuseCreated:
+                    FileManagerPool.PooledFileManager pooled =
+                        FILE_MANAGER_POOL.acquire( compiler, sourceCharset, collector );
+                    boolean completed = false;
+                    try
+                    {
+                        CompilerResult result =
+                            compile( compiler, pooled.getFileManager(), collector, args, sourceFiles );
+                        completed = true;
+                        return result;
+                    }
+                    finally
+                    {
+                        if ( completed )
+                        {
+                            FILE_MANAGER_POOL.release( pooled );
+                        }
+                        else
+                        {
+                            FILE_MANAGER_POOL.discard( pooled );
+                        }
+                    }
+                case ReuseSame:
+                default:
+                    List<Path> files = new ArrayList<Path>( sourceFiles.length );
+                    for ( String sourceFile : sourceFiles )
+                    {
+                        files.add( Paths.get( sourceFile ) );
+                    }
+                    final Boolean result =
+                        TASK_POOL.getTask( null, collector, Arrays.asList( args ), null, files, task -> task.call() );
+                    return toCompilerResult( result, collector );
+            }
         }
+        catch ( Exception e )
+        {
+            throw new CompilerException( e.getMessage(), e );
+        }
+    }
 
+    private CompilerResult compile( JavaCompiler compiler, StandardJavaFileManager standardFileManager,
+                                    DiagnosticCollector<JavaFileObject> collector, String[] args,
+                                    String[] sourceFiles )
+    {
+        final Iterable<? extends JavaFileObject> fileObjects =
+            standardFileManager.getJavaFileObjectsFromStrings( Arrays.asList( sourceFiles ) );
+
+        /*(Writer out,
+        JavaFileManager fileManager,
+        DiagnosticListener<? super JavaFileObject> diagnosticListener,
+        Iterable<String> options,
+        Iterable<String> classes,
+        Iterable<? extends JavaFileObject> compilationUnits)*/
+
+        List<String> arguments = Arrays.asList( args );
+
+        final JavaCompiler.CompilationTask task =
+            compiler.getTask( null, standardFileManager, collector, arguments, null, fileObjects );
+        final Boolean result = task.call();
+        return toCompilerResult( result, collector );
     }
 
-    private void releaseJavaCompiler( JavaCompiler javaCompiler, CompilerConfiguration compilerConfiguration )
+    /**
+     * Reports how the compilers of the build were reused: the compiler contexts of the compilations
+     * reusing the same compiler, and the file managers of those reusing created ones.
+     */
+    @Override
+    public String toString()
     {
-        if ( javaCompiler == null )
-        {
-            return;
-        }
-        if ( compilerConfiguration.getCompilerReuseStrategy()
-            == CompilerConfiguration.CompilerReuseStrategy.ReuseCreated )
-        {
-            JAVA_COMPILERS.add( javaCompiler );
-        }
+        return "contexts[reused=" + TASK_POOL.getReusedCount() + ", created=" + TASK_POOL.getCreatedCount()
+            + ", polluted=" + TASK_POOL.getPollutedCount() + ", removed=" + TASK_POOL.getRemovedCount()
+            + ", pooled=" + TASK_POOL.getPooledCount() + "], file managers[" + FILE_MANAGER_POOL + "]";
     }
 
-    public CompilerResult compileInProcess( String[] args, final CompilerConfiguration config, String[] sourceFiles )
-        throws CompilerException
+    private CompilerResult toCompilerResult( Boolean result, DiagnosticCollector<JavaFileObject> collector )
     {
-        JavaCompiler compiler = getJavaCompiler( config );
-        try
+        final ArrayList<CompilerMessage> compilerMsgs = new ArrayList<CompilerMessage>();
+        for ( Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics() )
         {
-            if ( compiler == null )
+            CompilerMessage.Kind kind = convertKind(diagnostic);
+            String baseMessage = diagnostic.getMessage( null );
+            if ( baseMessage == null )
             {
-                CompilerMessage message = new CompilerMessage( "No compiler is provided in this environment. "
-                                                                   + "Perhaps you are running on a JRE rather than a JDK?",
-                                                               CompilerMessage.Kind.ERROR );
-                return new CompilerResult( false, Collections.singletonList( message ) );
+                continue;
             }
-            final String sourceEncoding = config.getSourceEncoding();
-            final Charset sourceCharset = sourceEncoding == null ? null : Charset.forName( sourceEncoding );
-            final DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<JavaFileObject>();
-            try ( final StandardJavaFileManager standardFileManager =
-                compiler.getStandardFileManager( collector, null, sourceCharset ) )
+            JavaFileObject source = diagnostic.getSource();
+            String longFileName = source == null ? null : source.toUri().getPath();
+            String shortFileName = source == null ? null : source.getName();
+            String formattedMessage = baseMessage;
+            int lineNumber = Math.max( 0, (int) diagnostic.getLineNumber() );
+            int columnNumber = Math.max( 0, (int) diagnostic.getColumnNumber() );
+            if ( source != null && lineNumber > 0 )
             {
-
-                final Iterable<? extends JavaFileObject> fileObjects =
-                    standardFileManager.getJavaFileObjectsFromStrings( Arrays.asList( sourceFiles ) );
-
-                 /*(Writer out,
-                 JavaFileManager fileManager,
-                 DiagnosticListener<? super JavaFileObject> diagnosticListener,
-                 Iterable<String> options,
-                 Iterable<String> classes,
-                 Iterable<? extends JavaFileObject> compilationUnits)*/
-
-                List<String> arguments = Arrays.asList( args );
-
-                final JavaCompiler.CompilationTask task =
-                    compiler.getTask( null, standardFileManager, collector, arguments, null, fileObjects );
-                final Boolean result = task.call();
-                final ArrayList<CompilerMessage> compilerMsgs = new ArrayList<CompilerMessage>();
-                for ( Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics() )
+                // Some compilers like to copy the file name into the message, which makes it appear twice.
+                String possibleTrimming = longFileName + ":" + lineNumber + ": ";
+                if ( formattedMessage.startsWith( possibleTrimming ) )
                 {
-                    CompilerMessage.Kind kind = convertKind(diagnostic);
-                    String baseMessage = diagnostic.getMessage( null );
-                    if ( baseMessage == null )
-                    {
-                        continue;
-                    }
-                    JavaFileObject source = diagnostic.getSource();
-                    String longFileName = source == null ? null : source.toUri().getPath();
-                    String shortFileName = source == null ? null : source.getName();
-                    String formattedMessage = baseMessage;
-                    int lineNumber = Math.max( 0, (int) diagnostic.getLineNumber() );
-                    int columnNumber = Math.max( 0, (int) diagnostic.getColumnNumber() );
-                    if ( source != null && lineNumber > 0 )
-                    {
-                        // Some compilers like to copy the file name into the message, which makes it appear twice.
-                        String possibleTrimming = longFileName + ":" + lineNumber + ": ";
-                        if ( formattedMessage.startsWith( possibleTrimming ) )
-                        {
-                            formattedMessage = formattedMessage.substring( possibleTrimming.length() );
-                        }
-                        else
-                        {
-                            possibleTrimming = shortFileName + ":" + lineNumber + ": ";
-                            if ( formattedMessage.startsWith( possibleTrimming ) )
-                            {
-                                formattedMessage = formattedMessage.substring( possibleTrimming.length() );
-                            }
-                        }
-                    }
-                    compilerMsgs.add(
-                        new CompilerMessage( longFileName, kind, lineNumber, columnNumber, lineNumber, columnNumber,
-                                             formattedMessage ) );
+                    formattedMessage = formattedMessage.substring( possibleTrimming.length() );
                 }
-                if ( result != Boolean.TRUE && compilerMsgs.isEmpty() )
+                else
                 {
-                    compilerMsgs.add(
-                        new CompilerMessage( "An unknown compilation problem occurred", CompilerMessage.Kind.ERROR ) );
+                    possibleTrimming = shortFileName + ":" + lineNumber + ": ";
+                    if ( formattedMessage.startsWith( possibleTrimming ) )
+                    {
+                        formattedMessage = formattedMessage.substring( possibleTrimming.length() );
+                    }
                 }
-
-                return new CompilerResult( result, compilerMsgs );
             }
+            compilerMsgs.add(
+                new CompilerMessage( longFileName, kind, lineNumber, columnNumber, lineNumber, columnNumber,
+                                     formattedMessage ) );
         }
-        catch ( Exception e )
+        if ( result != Boolean.TRUE && compilerMsgs.isEmpty() )
         {
-            throw new CompilerException( e.getMessage(), e );
+            compilerMsgs.add(
+                new CompilerMessage( "An unknown compilation problem occurred", CompilerMessage.Kind.ERROR ) );
         }
-        finally
-        {
-            releaseJavaCompiler( compiler, config );
 
-        }
+        return new CompilerResult( result, compilerMsgs );
     }
 
     private CompilerMessage.Kind convertKind(Diagnostic<? extends JavaFileObject> diagnostic) {